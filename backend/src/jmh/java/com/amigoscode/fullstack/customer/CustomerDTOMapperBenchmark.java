@@ -0,0 +1,23 @@
+package com.amigoscode.fullstack.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerDTOMapperBenchmark {
+
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private final Customer customer = new Customer(
+            42, "Alex", "alex@amigoscode.com", "password", 30, Gender.MALE);
+
+    @Benchmark
+    public CustomerDTO apply() {
+        return customerDTOMapper.apply(customer);
+    }
+}
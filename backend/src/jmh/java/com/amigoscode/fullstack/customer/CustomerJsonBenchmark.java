@@ -0,0 +1,45 @@
+package com.amigoscode.fullstack.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+    private ObjectWriter writer;
+    private List<CustomerDTO> customers;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, CustomerDTO.class));
+        customers = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            customers.add(customerDTOMapper.apply(new Customer(
+                    i, "Customer " + i, "customer" + i + "@amigoscode.com", "password", 20 + i % 60,
+                    i % 2 == 0 ? Gender.MALE : Gender.FEMALE)));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(customers);
+    }
+}
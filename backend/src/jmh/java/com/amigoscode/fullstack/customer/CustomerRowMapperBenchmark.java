@@ -0,0 +1,53 @@
+package com.amigoscode.fullstack.customer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerRowMapperBenchmark {
+
+    private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> row = Map.of(
+                "id", 42,
+                "customer_name", "Alex",
+                "customer_email", "alex@amigoscode.com",
+                "password", "{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoO5mD7ZGBHfoxaaRxfuwKbGYNExq6xKyi",
+                "customer_age", 30,
+                "gender", "MALE",
+                "version", 3);
+        resultSet = (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> row.get((String) args[0]));
+    }
+
+    @Benchmark
+    public Customer mapRow() throws SQLException {
+        return customerRowMapper.mapRow(resultSet, 0);
+    }
+
+    @Benchmark
+    public Object resultSetBaseline() throws SQLException {
+        resultSet.getInt("id");
+        resultSet.getString("customer_name");
+        resultSet.getString("customer_email");
+        resultSet.getString("password");
+        resultSet.getInt("customer_age");
+        resultSet.getString("gender");
+        return resultSet.getInt("version");
+    }
+}
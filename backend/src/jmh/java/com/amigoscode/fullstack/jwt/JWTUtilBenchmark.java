@@ -0,0 +1,50 @@
+package com.amigoscode.fullstack.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTUtilBenchmark {
+
+    private static final String SUBJECT = "alex@amigoscode.com";
+    private static final List<String> SCOPES = List.of("ROLE_USER");
+
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil(10_000, new SimpleMeterRegistry());
+        token = jwtUtil.issueToken(SUBJECT, 1, SCOPES, 0);
+    }
+
+    @Benchmark
+    public String issueToken() {
+        return jwtUtil.issueToken(SUBJECT, 1, SCOPES, 0);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return jwtUtil.getSubject(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token, SUBJECT);
+    }
+
+    @Benchmark
+    public void issueAndVerifyNewToken(Blackhole blackhole) {
+        String fresh = jwtUtil.issueToken(SUBJECT, 1, SCOPES, 0);
+        blackhole.consume(jwtUtil.getSubject(fresh));
+    }
+}
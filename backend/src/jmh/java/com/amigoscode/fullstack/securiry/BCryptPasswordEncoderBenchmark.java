@@ -0,0 +1,39 @@
+package com.amigoscode.fullstack.securiry;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BCryptPasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "password";
+
+    @Param({"10", "12", "14"})
+    public int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        hash = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,143 @@
+package com.amigoscode.fullstack.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CustomerScenarios {
+
+    static final String PASSWORD = "password";
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int[] seededIds;
+    private final Queue<Integer> deletableIds = new ConcurrentLinkedQueue<>();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong registrations = new AtomicLong();
+    private String token;
+
+    CustomerScenarios(HttpClient httpClient, URI baseUri, int[] seededIds, Iterable<Integer> deletableIds) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+        this.seededIds = seededIds;
+        deletableIds.forEach(this.deletableIds::add);
+    }
+
+    static String seededEmail(int n) {
+        return "seed-%d@loadtest.local".formatted(n);
+    }
+
+    static String deletableEmail(int n) {
+        return "delete-%d@loadtest.local".formatted(n);
+    }
+
+    void authenticate() throws Exception {
+        HttpResponse<String> response = httpClient.send(login(seededEmail(1)), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("login failed with status %s".formatted(response.statusCode()));
+        }
+        token = response.headers().firstValue(HttpHeaders.AUTHORIZATION).orElseThrow();
+    }
+
+    CompletableFuture<HttpResponse<String>> send(Scenario scenario) {
+        HttpRequest request = switch (scenario) {
+            case REGISTER -> register();
+            case LOGIN -> login(seededEmail(1 + ThreadLocalRandom.current().nextInt(seededIds.length)));
+            case LIST -> authorized("/api/customers?limit=50&after=" + randomSeededId()).GET().build();
+            case GET -> authorized("/api/customers/" + randomSeededId()).GET().build();
+            case UPDATE -> update();
+            case DELETE -> delete();
+        };
+        if (request == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<HttpResponse<String>> response =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        if (scenario == Scenario.REGISTER) {
+            return response.thenApply(this::collectRegisteredId);
+        }
+        return response;
+    }
+
+    private HttpRequest register() {
+        String email = "register-%s-%d@loadtest.local".formatted(runId, registrations.incrementAndGet());
+        return json("/api/customers", Map.of(
+                "name", "Load Test",
+                "email", email,
+                "password", PASSWORD,
+                "age", 30,
+                "gender", "FEMALE"))
+                .build();
+    }
+
+    private HttpRequest login(String email) {
+        return json("/api/auth/login", Map.of("username", email, "password", PASSWORD)).build();
+    }
+
+    private HttpRequest update() {
+        int age = 18 + ThreadLocalRandom.current().nextInt(60);
+        return authorized("/api/customers/" + randomSeededId())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .PUT(body(Map.of("name", "Updated " + age, "age", age)))
+                .build();
+    }
+
+    private HttpRequest delete() {
+        Integer id = deletableIds.poll();
+        if (id == null) {
+            return null;
+        }
+        return authorized("/api/customers/" + id).DELETE().build();
+    }
+
+    private HttpResponse<String> collectRegisteredId(HttpResponse<String> response) {
+        if (response.statusCode() == 200) {
+            try {
+                JsonNode body = objectMapper.readTree(response.body());
+                deletableIds.add(body.get("id").asInt());
+            } catch (Exception ignored) {
+            }
+        }
+        return response;
+    }
+
+    private int randomSeededId() {
+        return seededIds[ThreadLocalRandom.current().nextInt(seededIds.length)];
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private HttpRequest.Builder json(String path, Map<String, Object> body) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .POST(body(body));
+    }
+
+    private HttpRequest.BodyPublisher body(Map<String, Object> body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
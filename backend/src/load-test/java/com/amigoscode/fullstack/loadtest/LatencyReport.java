@@ -0,0 +1,89 @@
+package com.amigoscode.fullstack.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Map<Scenario, Recorder> corrected = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, Recorder> uncorrected = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, Map<Integer, LongAdder>> statuses = new EnumMap<>(Scenario.class);
+    private final LongAdder skipped = new LongAdder();
+
+    LatencyReport() {
+        for (Scenario scenario : Scenario.values()) {
+            corrected.put(scenario, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            uncorrected.put(scenario, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            statuses.put(scenario, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(Scenario scenario, long intendedStart, long sent, long completed, int status) {
+        corrected.get(scenario).recordValue(Math.min(completed - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        uncorrected.get(scenario).recordValue(Math.min(completed - sent, HIGHEST_TRACKABLE_NANOS));
+        statuses.get(scenario).computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    void skip() {
+        skipped.increment();
+    }
+
+    void print(PrintStream out, Duration duration, LoadTestOptions options) {
+        out.printf("%ndao=%s virtual-threads=%s customers=%d target-rate=%d/s duration=%s%n",
+                options.dataAccess(), options.virtualThreads(), options.customers(), options.rate(), duration);
+        out.println("latency is corrected for coordinated omission (measured from intended start); "
+                + "'svc p99' is measured from send");
+        out.printf("%-9s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "scenario", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99", "statuses");
+
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Histogram totalUncorrected = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Map<Integer, Long> totalStatuses = new TreeMap<>();
+        for (Scenario scenario : Scenario.values()) {
+            Histogram histogram = corrected.get(scenario).getIntervalHistogram();
+            Histogram service = uncorrected.get(scenario).getIntervalHistogram();
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.get(scenario).forEach((status, count) -> counts.put(status, count.sum()));
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalUncorrected.add(service);
+            counts.forEach((status, count) -> totalStatuses.merge(status, count, Long::sum));
+            printRow(out, scenario.name().toLowerCase(), histogram, service, counts, duration);
+        }
+        printRow(out, "total", total, totalUncorrected, totalStatuses, duration);
+        if (skipped.sum() > 0) {
+            out.printf("skipped %d delete(s): no deletable customers left%n", skipped.sum());
+        }
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram, Histogram service,
+                                 Map<Integer, Long> statuses, Duration duration) {
+        out.printf("%-9s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                name,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / (duration.toMillis() / 1000.0),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                millis(service.getValueAtPercentile(99)),
+                statuses);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
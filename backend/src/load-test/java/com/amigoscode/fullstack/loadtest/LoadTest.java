@@ -0,0 +1,132 @@
+package com.amigoscode.fullstack.loadtest;
+
+import com.amigoscode.fullstack.FullstackApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ConfigurableApplicationContext context = startApplication(postgres.getPort(), options)) {
+
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            String passwordHash = context.getBean(PasswordEncoder.class).encode(CustomerScenarios.PASSWORD);
+            int[] seededIds = seed(jdbcTemplate, "seed", options.customers(), passwordHash);
+            int deletable = (int) options.expected(Scenario.DELETE);
+            List<Integer> deletableIds = deletable == 0
+                    ? List.of()
+                    : boxed(seed(jdbcTemplate, "delete", deletable, passwordHash));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ExecutorService clientExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientExecutor)
+                    .build();
+            CustomerScenarios scenarios = new CustomerScenarios(
+                    httpClient, URI.create("http://localhost:%d".formatted(port)), seededIds, deletableIds);
+            scenarios.authenticate();
+
+            ScenarioMix mix = new ScenarioMix(options.mix());
+            System.out.printf("warming up for %s%n", options.warmup());
+            run(scenarios, mix, options.rate(), options.warmup(), new LatencyReport());
+            System.out.printf("measuring for %s%n", options.duration());
+            LatencyReport report = new LatencyReport();
+            Duration elapsed = run(scenarios, mix, options.rate(), options.duration(), report);
+            report.print(System.out, elapsed, options);
+
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(int databasePort, LoadTestOptions options) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url",
+                "jdbc:postgresql://localhost:%d/postgres?reWriteBatchedInserts=true".formatted(databasePort));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.r2dbc.url", "r2dbc:postgresql://localhost:%d/postgres".formatted(databasePort));
+        properties.put("spring.r2dbc.username", "postgres");
+        properties.put("spring.r2dbc.password", "");
+        properties.put("logging.level.root", "warn");
+        properties.put("customer.data-access", options.dataAccess());
+        properties.put("spring.threads.virtual.enabled", options.virtualThreads());
+        return new SpringApplicationBuilder(FullstackApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    private static int[] seed(JdbcTemplate jdbcTemplate, String prefix, int count, String passwordHash) {
+        var sql = """
+                INSERT INTO customers(id, customer_name, customer_email, password, customer_age, gender)
+                SELECT nextval('customers_id_seq'), 'Load Test ' || n, ? || '-' || n || '@loadtest.local', ?,
+                       18 + n % 60, CASE WHEN n % 2 = 0 THEN 'MALE' ELSE 'FEMALE' END
+                FROM generate_series(1, ?) AS n
+                RETURNING id
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("id"), prefix, passwordHash, count)
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+    }
+
+    private static List<Integer> boxed(int[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private static Duration run(CustomerScenarios scenarios, ScenarioMix mix, int rate, Duration duration,
+                                LatencyReport report) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toNanos() / intervalNanos;
+        Phaser inFlight = new Phaser(1);
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long now;
+            while ((now = System.nanoTime()) < intendedStart) {
+                LockSupport.parkNanos(intendedStart - now);
+            }
+            Scenario scenario = mix.next();
+            inFlight.register();
+            long sent = System.nanoTime();
+            scenarios.send(scenario).whenComplete((response, error) -> {
+                long completed = System.nanoTime();
+                if (error == null && response == null) {
+                    report.skip();
+                } else {
+                    report.record(scenario, intendedStart, sent, completed,
+                            response == null ? -1 : response.statusCode());
+                }
+                inFlight.arriveAndDeregister();
+            });
+        }
+        try {
+            inFlight.awaitAdvanceInterruptibly(inFlight.arrive(), 2, TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            System.out.println("timed out waiting for in-flight requests");
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
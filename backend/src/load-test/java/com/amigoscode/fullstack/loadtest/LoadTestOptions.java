@@ -0,0 +1,51 @@
+package com.amigoscode.fullstack.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+record LoadTestOptions(
+        String dataAccess,
+        boolean virtualThreads,
+        int customers,
+        int rate,
+        Duration warmup,
+        Duration duration,
+        Map<Scenario, Integer> mix
+) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("expected --name=value but got [%s]".formatted(arg));
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+                values.getOrDefault("dao", "jpa"),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Integer.parseInt(values.getOrDefault("customers", "10000")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "15s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                parseMix(values.getOrDefault("mix", "register:5,login:5,list:20,get:50,update:15,delete:5")));
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Scenario.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    long expected(Scenario scenario) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long requests = (long) rate * (warmup.toSeconds() + duration.toSeconds());
+        return requests * mix.getOrDefault(scenario, 0) / total;
+    }
+}
@@ -0,0 +1,10 @@
+package com.amigoscode.fullstack.loadtest;
+
+enum Scenario {
+    REGISTER,
+    LOGIN,
+    LIST,
+    GET,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,33 @@
+package com.amigoscode.fullstack.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+class ScenarioMix {
+
+    private final Scenario[] scenarios;
+    private final int[] cumulativeWeights;
+
+    ScenarioMix(Map<Scenario, Integer> weights) {
+        scenarios = weights.keySet().toArray(Scenario[]::new);
+        cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += weights.get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("scenario mix must have a positive total weight");
+        }
+    }
+
+    Scenario next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
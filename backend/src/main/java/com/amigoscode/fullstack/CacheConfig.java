@@ -0,0 +1,37 @@
+package com.amigoscode.fullstack;
+
+import com.amigoscode.fullstack.customer.CustomerCacheNames;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${customer.cache.by-id.maximum-size:10000}") long customersMaximumSize,
+            @Value("${customer.cache.by-id.time-to-live:5m}") Duration customersTimeToLive,
+            @Value("${customer.cache.pages.maximum-size:1000}") long pagesMaximumSize,
+            @Value("${customer.cache.pages.time-to-live:30s}") Duration pagesTimeToLive) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CustomerCacheNames.CUSTOMERS, Caffeine.newBuilder()
+                .maximumSize(customersMaximumSize)
+                .expireAfterWrite(customersTimeToLive)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CustomerCacheNames.CUSTOMER_PAGES, Caffeine.newBuilder()
+                .maximumSize(pagesMaximumSize)
+                .expireAfterWrite(pagesTimeToLive)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,19 @@
+package com.amigoscode.fullstack;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+public class FlywayConfig {
+
+    public static final Map<String, String> NON_TRANSACTIONAL_LOCK =
+            Map.of("flyway.postgresql.transactional.lock", "false");
+
+    @Bean
+    public FlywayConfigurationCustomizer nonTransactionalLockCustomizer() {
+        return configuration -> configuration.configuration(NON_TRANSACTIONAL_LOCK);
+    }
+}
@@ -1,19 +1,31 @@
 package com.amigoscode.fullstack;
 
 import com.amigoscode.fullstack.customer.Customer;
-import com.amigoscode.fullstack.customer.CustomerRepository;
+import com.amigoscode.fullstack.customer.CustomerDAO;
+import com.amigoscode.fullstack.customer.CustomerDataAccessRegistrar;
 import com.amigoscode.fullstack.customer.Gender;
 import com.github.javafaker.Faker;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Random;
 import java.util.UUID;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = {
+        R2dbcAutoConfiguration.class,
+        R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling
 public class FullstackApplication {
 
     public static void main(String[] args) {
@@ -23,7 +35,7 @@ public class FullstackApplication {
 
     @Bean
     CommandLineRunner runner(
-            CustomerRepository customerRepository,
+            @Qualifier(CustomerDataAccessRegistrar.CUSTOMER_DAO) CustomerDAO customerDAO,
             PasswordEncoder passwordEncoder){
         return args -> {
             var faker = new Faker();
@@ -36,7 +48,7 @@ public class FullstackApplication {
                     passwordEncoder.encode("password"),
                     age, Gender.MALE);
 
-           customerRepository.save(customer);
+           customerDAO.insertCustomer(customer);
             System.out.println(email);
         };
     }
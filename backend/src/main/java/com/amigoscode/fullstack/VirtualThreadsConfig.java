@@ -0,0 +1,45 @@
+package com.amigoscode.fullstack;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(
+            AsyncTaskExecutor applicationTaskExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(applicationTaskExecutor);
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(
+                    "spring.threads.virtual.enabled requires Java 21 or newer, running on %s"
+                            .formatted(Runtime.version()), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("could not create virtual thread executor", e);
+        }
+    }
+}
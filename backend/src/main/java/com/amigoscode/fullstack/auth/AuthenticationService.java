@@ -4,6 +4,8 @@ import com.amigoscode.fullstack.customer.Customer;
 import com.amigoscode.fullstack.customer.CustomerDTO;
 import com.amigoscode.fullstack.customer.CustomerDTOMapper;
 import com.amigoscode.fullstack.jwt.JWTUtil;
+import com.amigoscode.fullstack.jwt.TokenVersionRegistry;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -15,13 +17,16 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final CustomerDTOMapper customerDTOMapper;
     private final JWTUtil jwtUtil;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
-    public AuthenticationService(AuthenticationManager authenticationManager, CustomerDTOMapper customerDTOMapper, JWTUtil jwtUtil) {
+    public AuthenticationService(AuthenticationManager authenticationManager, CustomerDTOMapper customerDTOMapper, JWTUtil jwtUtil, TokenVersionRegistry tokenVersionRegistry) {
         this.authenticationManager = authenticationManager;
         this.customerDTOMapper = customerDTOMapper;
         this.jwtUtil = jwtUtil;
+        this.tokenVersionRegistry = tokenVersionRegistry;
     }
 
+    @Timed(value = "auth.service", histogram = true)
     public AuthenticationResponse login(AuthenticationRequest request){
 
         Authentication authentication = authenticationManager.authenticate(
@@ -30,7 +35,11 @@ public class AuthenticationService {
 
         Customer principal = (Customer)authentication.getPrincipal();
         CustomerDTO customerDTO = customerDTOMapper.apply(principal);
-        String token = jwtUtil.issueToken(customerDTO.username(), customerDTO.roles());
+        String token = jwtUtil.issueToken(
+                customerDTO.username(),
+                customerDTO.id(),
+                customerDTO.roles(),
+                tokenVersionRegistry.issueVersion(customerDTO.id()));
 
         return new AuthenticationResponse(token, customerDTO);
     }
@@ -0,0 +1,26 @@
+package com.amigoscode.fullstack.auth;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+@RequestMapping("/api/reactive/auth")
+public class ReactiveAuthenticationController {
+
+    private final ReactiveAuthenticationService authenticationService;
+
+    public ReactiveAuthenticationController(ReactiveAuthenticationService authenticationService) {
+        this.authenticationService = authenticationService;
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<AuthenticationResponse>> login(@RequestBody AuthenticationRequest request){
+        return authenticationService.login(request).map(response -> ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, response.token())
+                .body(response));
+    }
+}
@@ -0,0 +1,84 @@
+package com.amigoscode.fullstack.auth;
+
+import com.amigoscode.fullstack.customer.Customer;
+import com.amigoscode.fullstack.customer.CustomerDTO;
+import com.amigoscode.fullstack.customer.CustomerDTOMapper;
+import com.amigoscode.fullstack.customer.ReactiveCustomerDAO;
+import com.amigoscode.fullstack.jwt.JWTUtil;
+import com.amigoscode.fullstack.jwt.TokenVersionRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+@Service
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class ReactiveAuthenticationService {
+
+    private static final String USER_NOT_FOUND_PASSWORD = "userNotFoundPassword";
+
+    private final ReactiveCustomerDAO customerDAO;
+    private final PasswordEncoder passwordEncoder;
+    private final CustomerDTOMapper customerDTOMapper;
+    private final JWTUtil jwtUtil;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private volatile String userNotFoundEncodedPassword;
+
+    public ReactiveAuthenticationService(@Qualifier("r2dbc") ReactiveCustomerDAO customerDAO, PasswordEncoder passwordEncoder, CustomerDTOMapper customerDTOMapper, JWTUtil jwtUtil, TokenVersionRegistry tokenVersionRegistry) {
+        this.customerDAO = customerDAO;
+        this.passwordEncoder = passwordEncoder;
+        this.customerDTOMapper = customerDTOMapper;
+        this.jwtUtil = jwtUtil;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+    }
+
+    public Mono<AuthenticationResponse> login(AuthenticationRequest request) {
+        return customerDAO
+                .selectUserByEmail(request.username())
+                .switchIfEmpty(Mono.defer(() -> mitigateAgainstTimingAttack(request.password())))
+                .filterWhen(customer -> offload(() -> passwordEncoder.matches(request.password(), customer.getPassword())))
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Bad credentials")))
+                .flatMap(customer -> upgradeEncoding(customer, request.password()).thenReturn(customer))
+                .flatMap(customer -> offload(() -> tokenVersionRegistry.issueVersion(customer.getId()))
+                        .map(tokenVersion -> toResponse(customer, tokenVersion)));
+    }
+
+    private Mono<Customer> mitigateAgainstTimingAttack(String rawPassword) {
+        return offload(() -> passwordEncoder.matches(rawPassword, userNotFoundEncodedPassword()))
+                .then(Mono.empty());
+    }
+
+    private String userNotFoundEncodedPassword() {
+        if (userNotFoundEncodedPassword == null) {
+            userNotFoundEncodedPassword = passwordEncoder.encode(USER_NOT_FOUND_PASSWORD);
+        }
+        return userNotFoundEncodedPassword;
+    }
+
+    private Mono<Void> upgradeEncoding(Customer customer, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(customer.getPassword())) {
+            return Mono.empty();
+        }
+        return offload(() -> passwordEncoder.encode(rawPassword))
+                .flatMap(password -> customerDAO.updateCustomerPassword(customer.getId(), password));
+    }
+
+    private AuthenticationResponse toResponse(Customer customer, int tokenVersion) {
+        CustomerDTO customerDTO = customerDTOMapper.apply(customer);
+        String token = jwtUtil.issueToken(
+                customerDTO.username(),
+                customerDTO.id(),
+                customerDTO.roles(),
+                tokenVersion);
+        return new AuthenticationResponse(token, customerDTO);
+    }
+
+    private static <T> Mono<T> offload(Callable<T> hashing) {
+        return Mono.fromCallable(hashing).subscribeOn(Schedulers.boundedElastic());
+    }
+}
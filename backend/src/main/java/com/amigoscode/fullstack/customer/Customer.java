@@ -24,7 +24,7 @@ public class Customer implements UserDetails {
     @SequenceGenerator(
             name = "customers_id_seq",
             sequenceName = "customers_id_seq",
-            allocationSize = 1)
+            allocationSize = 50)
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
             generator = "customers_id_seq")
@@ -56,6 +56,11 @@ public class Customer implements UserDetails {
             nullable = false)
     private String password;
 
+    @Version
+    @Column(name = "version",
+            nullable = false)
+    private Integer version;
+
     public Customer() {
     }
 
@@ -116,6 +121,14 @@ public class Customer implements UserDetails {
         this.gender = gender;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,69 @@
+package com.amigoscode.fullstack.customer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+final class CustomerBatchInsert {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO customers(id, customer_name, customer_email, password, customer_age, gender)
+            VALUES (COALESCE(?, nextval('customers_id_seq')), ?, ?, ?, ?, ?)
+            ON CONFLICT (customer_email) DO NOTHING
+            """;
+    private static final String SELECT_INSERTED_SQL = """
+            SELECT id, customer_email, password FROM customers WHERE customer_email = ANY(?)
+            """;
+
+    private CustomerBatchInsert() {
+    }
+
+    static Map<String, Integer> insert(Connection connection, List<Customer> customers, List<Integer> ids)
+            throws SQLException {
+        Iterator<Integer> nextIds = ids.iterator();
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            int pending = 0;
+            for (Customer customer : customers) {
+                ps.setObject(1, nextIds.next(), Types.INTEGER);
+                ps.setString(2, customer.getName());
+                ps.setString(3, customer.getEmail());
+                ps.setString(4, customer.getPassword());
+                ps.setInt(5, customer.getAge());
+                ps.setString(6, customer.getGender().name());
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+
+        Map<String, String> passwordsByEmail = customers.stream()
+                .collect(Collectors.toMap(Customer::getEmail, Customer::getPassword));
+        Map<String, Integer> inserted = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(SELECT_INSERTED_SQL)) {
+            ps.setArray(1, connection.createArrayOf("text", passwordsByEmail.keySet().toArray()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String email = rs.getString("customer_email");
+                    if (rs.getString("password").equals(passwordsByEmail.get(email))) {
+                        inserted.put(email, rs.getInt("id"));
+                    }
+                }
+            }
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,8 @@
+package com.amigoscode.fullstack.customer;
+
+import java.util.List;
+import java.util.Map;
+
+public interface CustomerBatchRepository {
+    Map<String, Integer> insertIfEmailAbsent(List<Customer> customers, List<Integer> ids);
+}
@@ -0,0 +1,24 @@
+package com.amigoscode.fullstack.customer;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+public class CustomerBatchRepositoryImpl implements CustomerBatchRepository {
+
+    private final EntityManager entityManager;
+
+    public CustomerBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Integer> insertIfEmailAbsent(List<Customer> customers, List<Integer> ids) {
+        return entityManager.unwrap(Session.class).doReturningWork(
+                connection -> CustomerBatchInsert.insert(connection, customers, ids));
+    }
+}
@@ -0,0 +1,9 @@
+package com.amigoscode.fullstack.customer;
+
+public record CustomerBatchResult(
+        int index,
+        String email,
+        CustomerBatchStatus status,
+        Integer id,
+        String message
+) {}
@@ -0,0 +1,8 @@
+package com.amigoscode.fullstack.customer;
+
+public enum CustomerBatchStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    OVERLOADED
+}
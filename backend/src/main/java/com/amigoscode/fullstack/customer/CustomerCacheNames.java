@@ -0,0 +1,10 @@
+package com.amigoscode.fullstack.customer;
+
+public final class CustomerCacheNames {
+
+    public static final String CUSTOMERS = "customers";
+    public static final String CUSTOMER_PAGES = "customer-pages";
+
+    private CustomerCacheNames() {
+    }
+}
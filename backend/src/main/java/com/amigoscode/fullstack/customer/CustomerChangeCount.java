@@ -0,0 +1,53 @@
+package com.amigoscode.fullstack.customer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class CustomerChangeCount {
+
+    private final CustomerDAO customerDAO;
+    private final long timeToLiveNanos;
+
+    private volatile Snapshot snapshot;
+
+    public CustomerChangeCount(@Qualifier(CustomerDataAccessRegistrar.CUSTOMER_DAO) CustomerDAO customerDAO,
+                               @Value("${customer.cache.change-count.time-to-live:1s}") Duration timeToLive) {
+        this.customerDAO = customerDAO;
+        this.timeToLiveNanos = timeToLive.toNanos();
+    }
+
+    public long current() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        if (current != null && now - current.loadedAt() < timeToLiveNanos) {
+            return current.count();
+        }
+        return store(customerDAO.selectCustomersChangeCount(), now);
+    }
+
+    public boolean changedWithin(Duration window) {
+        Snapshot current = snapshot;
+        return current == null || System.nanoTime() - current.changedAt() < window.toNanos();
+    }
+
+    public long advance() {
+        return store(customerDAO.advanceCustomersChangeCount(), System.nanoTime());
+    }
+
+    private synchronized long store(long count, long loadedAt) {
+        Snapshot current = snapshot;
+        if (current == null || count > current.count()) {
+            snapshot = new Snapshot(count, loadedAt, loadedAt);
+            return count;
+        }
+        snapshot = new Snapshot(current.count(), loadedAt, current.changedAt());
+        return current.count();
+    }
+
+    private record Snapshot(long count, long loadedAt, long changedAt) {
+    }
+}
@@ -1,47 +1,142 @@
 package com.amigoscode.fullstack.customer;
 
 import com.amigoscode.fullstack.jwt.JWTUtil;
+import com.amigoscode.fullstack.jwt.TokenVersionRegistry;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final CustomerService customerService;
 
     private final JWTUtil jwtUtil;
 
-    public CustomerController(CustomerService customerService, JWTUtil jwtUtil) {
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    private final CustomerDTOMapper customerDTOMapper;
+
+    private final CustomerStreamer customerStreamer;
+
+    public CustomerController(CustomerService customerService, JWTUtil jwtUtil, TokenVersionRegistry tokenVersionRegistry, CustomerDTOMapper customerDTOMapper, CustomerStreamer customerStreamer) {
         this.customerService = customerService;
         this.jwtUtil = jwtUtil;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.customerDTOMapper = customerDTOMapper;
+        this.customerStreamer = customerStreamer;
     }
 
     @GetMapping()
-    public List<CustomerDTO> allCustomers(){
-        return customerService.getAllCustomers();
+    public ResponseEntity<List<CustomerDTO>> allCustomers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @RequestParam(value = "maxAge", required = false) Integer maxAge,
+            @RequestParam(value = "gender", required = false) String gender,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        Set<CustomerField> projection = CustomerField.parse(fields);
+        CustomerQuery query = CustomerQuery.parse(minAge, maxAge, gender, sort, after);
+        String eTag = customerService.getCustomersETag(query, limit, projection);
+        if (matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        CustomerPage page = customerService.getCustomers(query, limit, projection);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE);
+        if (page.nextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.nextCursor())
+                    .replaceQueryParam("limit", limit)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next))
+                    .header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.customers());
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamCustomers(
+            @RequestParam(value = "fields", required = false) String fields){
+        Set<CustomerField> projection = CustomerField.parse(fields);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noStore())
+                .body(outputStream -> customerStreamer.writeCustomers(projection, outputStream));
+    }
+
+    @GetMapping("/search")
+    public List<CustomerDTO> searchCustomers(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @RequestParam(value = "fields", required = false) String fields){
+        return customerService.searchCustomers(query, limit, CustomerField.parse(fields));
+    }
+
+    @GetMapping("/email-available")
+    public EmailAvailability isEmailAvailable(@RequestParam("email") String email){
+        return customerService.isEmailAvailable(email);
     }
 
     @GetMapping("/{id}")
-    public CustomerDTO getCustomer(@PathVariable("id") Integer id){
-       return customerService.getCustomer(id);
+    public ResponseEntity<CustomerDTO> getCustomer(
+            @PathVariable("id") Integer id,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+        Set<CustomerField> projection = CustomerField.parse(fields);
+        String eTag = null;
+        if (ifNoneMatch != null) {
+            eTag = customerService.getCustomerETag(id);
+            if (matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+        }
+        VersionedCustomer customer = customerService.getVersionedCustomer(id);
+        if (eTag != null && !eTag.equals(customer.eTag())) {
+            customer = customerService.reloadVersionedCustomer(id);
+        }
+        return ResponseEntity.ok()
+                .eTag(customer.eTag())
+                .cacheControl(REVALIDATE)
+                .body(customerDTOMapper.retain(customer.customer(), projection));
     }
 
     @PostMapping()
-    public ResponseEntity<?> addCustomer(@RequestBody CustomerRegistrationRequest request){
-        customerService.addCustomer(request);
-        String jwtToken = jwtUtil.issueToken(request.email(), "ROLE_USER");
-        return ResponseEntity.ok().header(HttpHeaders.AUTHORIZATION, jwtToken).build();
+    public ResponseEntity<CustomerRegistrationResponse> addCustomer(@RequestBody CustomerRegistrationRequest request){
+        Integer id = customerService.addCustomer(request);
+        String jwtToken = jwtUtil.issueToken(
+                request.email(), id, List.of("ROLE_USER"), tokenVersionRegistry.issueVersion(id));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AUTHORIZATION, jwtToken)
+                .body(new CustomerRegistrationResponse(id));
+    }
+
+    @PostMapping("/batch")
+    public List<CustomerBatchResult> addCustomers(@RequestBody List<CustomerRegistrationRequest> requests){
+        return customerService.addCustomers(requests);
     }
 
     @PutMapping("/{id}")
-    public void updateCustomer(
+    public ResponseEntity<Void> updateCustomer(
             @PathVariable("id") Integer id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody CustomerUpdateRequest updateRequest){
-        customerService.updateCustomer(id, updateRequest);
+        String eTag = customerService.updateCustomer(id, updateRequest, ifMatch);
+        return ResponseEntity.ok().eTag(eTag).build();
     }
 
     @DeleteMapping("/{id}")
@@ -49,4 +144,26 @@ public class CustomerController {
         customerService.deleteCustomerById(id);
     }
 
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(REVALIDATE)
+                .build();
+    }
 }
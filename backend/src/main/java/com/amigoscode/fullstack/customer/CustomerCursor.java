@@ -0,0 +1,65 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record CustomerCursor(
+        CustomerSort sort,
+        Object value,
+        int id
+) {
+
+    static CustomerCursor of(CustomerSort sort, CustomerProjection last) {
+        return new CustomerCursor(sort, sort.value(last), last.id());
+    }
+
+    public String encode() {
+        if (sort.field() == CustomerField.ID) {
+            return String.valueOf(id);
+        }
+        String cursor = "%s:%d:%s".formatted(sort.parameter(), id, value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CustomerCursor decode(String cursor, CustomerSort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        if (cursor.chars().allMatch(Character::isDigit)) {
+            if (sort.field() != CustomerField.ID) {
+                throw new RequestValidationException("cursor does not match sort [%s]".formatted(sort.parameter()));
+            }
+            int id = parseInt(cursor);
+            return new CustomerCursor(sort, id, id);
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+        if (parts.length != 3) {
+            throw invalid(cursor);
+        }
+        if (!parts[0].equals(sort.parameter())) {
+            throw new RequestValidationException("cursor does not match sort [%s]".formatted(sort.parameter()));
+        }
+        int id = parseInt(parts[1]);
+        Object value = sort.field() == CustomerField.AGE ? parseInt(parts[2]) : parts[2];
+        return new CustomerCursor(sort, value, id);
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalid(value);
+        }
+    }
+
+    private static RequestValidationException invalid(String cursor) {
+        return new RequestValidationException("invalid cursor [%s]".formatted(cursor));
+    }
+}
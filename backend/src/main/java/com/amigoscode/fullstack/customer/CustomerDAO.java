@@ -1,15 +1,27 @@
 package com.amigoscode.fullstack.customer;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface CustomerDAO {
-    List<Customer> selectAllCustomers();
-    Optional<Customer> selectCustomerById(Integer id);
-    void insertCustomer(Customer customer);
+    List<CustomerProjection> selectCustomerProjections(CustomerQuery query, int limit, Set<CustomerField> fields);
+    Optional<CustomerProjection> selectCustomerProjectionById(Integer id, Set<CustomerField> fields);
+    List<CustomerProjection> searchCustomerProjections(String query, int limit, Set<CustomerField> fields);
+    long streamCustomerProjections(Set<CustomerField> fields, int fetchSize, Consumer<CustomerProjection> consumer);
+    Optional<Integer> selectCustomerVersion(Integer id);
+    long selectCustomersChangeCount();
+    long advanceCustomersChangeCount();
+    Optional<Integer> insertCustomer(Customer customer);
+    Map<String, Integer> insertCustomers(List<Customer> customers);
     boolean existsPersonWithEmail(String email);
+    Set<String> selectExistingEmails(Collection<String> emails);
     boolean existsPersonWithId(Integer id);
-    void deleteCustomerById(Integer id);
-    void updateCustomer(Customer update);
+    boolean deleteCustomerById(Integer id);
+    Optional<String> updateCustomer(Customer update);
+    void updateCustomerPassword(Integer id, String password);
     Optional<Customer> selectUserByEmail(String email);
 }
@@ -0,0 +1,132 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.datasource.QueryOrigin;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class CustomerDAOMetricsPostProcessor implements BeanPostProcessor {
+
+    static final String DAO_TIMER = "customer.dao";
+    static final String DAO_ROWS = "customer.dao.rows";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public CustomerDAOMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof CustomerDAO customerDAO)) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(
+                CustomerDAO.class.getClassLoader(),
+                new Class<?>[]{CustomerDAO.class},
+                new MeteredInvocationHandler(customerDAO, beanName, meterRegistry.getObject()));
+    }
+
+    private static class MeteredInvocationHandler implements InvocationHandler {
+
+        private final CustomerDAO target;
+        private final Map<Method, MethodMeters> meters = new HashMap<>();
+
+        MeteredInvocationHandler(CustomerDAO target, String dao, MeterRegistry registry) {
+            this.target = target;
+            for (Method method : CustomerDAO.class.getMethods()) {
+                meters.put(method, new MethodMeters(registry, dao, method.getName()));
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodMeters methodMeters = meters.get(method);
+            if (methodMeters == null) {
+                return invokeTarget(method, args);
+            }
+            String previousOrigin = QueryOrigin.enter(methodMeters.origin);
+            long start = System.nanoTime();
+            try {
+                Object result = invokeTarget(method, args);
+                methodMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                int rows = rows(result);
+                if (rows >= 0) {
+                    methodMeters.rows.record(rows);
+                }
+                return result;
+            } catch (Throwable e) {
+                methodMeters.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            } finally {
+                QueryOrigin.exit(previousOrigin);
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private static int rows(Object result) {
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Map<?, ?> map) {
+                return map.size();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            return -1;
+        }
+    }
+
+    private static class MethodMeters {
+
+        private final String origin;
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+
+        MethodMeters(MeterRegistry registry, String dao, String method) {
+            this.origin = dao + "." + method;
+            this.success = timer(registry, dao, method, "success");
+            this.error = timer(registry, dao, method, "error");
+            this.rows = DistributionSummary.builder(DAO_ROWS)
+                    .description("Rows returned by CustomerDAO methods")
+                    .tag("dao", dao)
+                    .tag("method", method)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private static Timer timer(MeterRegistry registry, String dao, String method, String outcome) {
+            return Timer.builder(DAO_TIMER)
+                    .description("Latency of CustomerDAO methods")
+                    .tag("dao", dao)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+    }
+}
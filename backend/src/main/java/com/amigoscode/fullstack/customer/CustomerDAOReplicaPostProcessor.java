@@ -0,0 +1,179 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.jwt.CustomerPrincipal;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "customer.replica.enabled", havingValue = "true")
+public class CustomerDAOReplicaPostProcessor implements BeanPostProcessor {
+
+    static final Set<String> REPLICA_READS = Set.of(
+            "selectCustomerProjections",
+            "selectCustomerProjectionById",
+            "searchCustomerProjections",
+            "streamCustomerProjections",
+            "selectCustomerVersion",
+            "selectUserByEmail");
+    static final Set<String> LIST_READS = Set.of(
+            "selectCustomerProjections");
+    static final Set<String> WRITES = Set.of(
+            "insertCustomer",
+            "insertCustomers",
+            "updateCustomer",
+            "updateCustomerPassword",
+            "deleteCustomerById");
+    static final Set<String> SINGLE_CUSTOMER_READS = Set.of(
+            "selectCustomerProjectionById",
+            "selectCustomerVersion",
+            "selectUserByEmail");
+
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final ObjectProvider<CustomerReadYourWrites> readYourWrites;
+    private final ObjectProvider<CustomerChangeCount> changeCount;
+    private final Duration maxLag;
+
+    public CustomerDAOReplicaPostProcessor(ObjectProvider<PlatformTransactionManager> transactionManager,
+                                           ObjectProvider<CustomerReadYourWrites> readYourWrites,
+                                           ObjectProvider<CustomerChangeCount> changeCount,
+                                           @Value("${customer.replica.max-lag:PT5S}") Duration maxLag) {
+        this.transactionManager = transactionManager;
+        this.readYourWrites = readYourWrites;
+        this.changeCount = changeCount;
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof CustomerDAO customerDAO)) {
+            return bean;
+        }
+        return Proxy.newProxyInstance(
+                CustomerDAO.class.getClassLoader(),
+                new Class<?>[]{CustomerDAO.class},
+                new ReplicaRoutingInvocationHandler(customerDAO, transactionManager, readYourWrites, changeCount, maxLag));
+    }
+
+    private static class ReplicaRoutingInvocationHandler implements InvocationHandler {
+
+        private final CustomerDAO target;
+        private final ObjectProvider<PlatformTransactionManager> transactionManager;
+        private final ObjectProvider<CustomerReadYourWrites> readYourWrites;
+        private final ObjectProvider<CustomerChangeCount> changeCount;
+        private final Duration maxLag;
+        private volatile TransactionTemplate readOnly;
+
+        ReplicaRoutingInvocationHandler(CustomerDAO target,
+                                        ObjectProvider<PlatformTransactionManager> transactionManager,
+                                        ObjectProvider<CustomerReadYourWrites> readYourWrites,
+                                        ObjectProvider<CustomerChangeCount> changeCount,
+                                        Duration maxLag) {
+            this.target = target;
+            this.transactionManager = transactionManager;
+            this.readYourWrites = readYourWrites;
+            this.changeCount = changeCount;
+            this.maxLag = maxLag;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() != CustomerDAO.class) {
+                return invokeTarget(method, args);
+            }
+            String name = method.getName();
+            CustomerReadYourWrites recentWrites = readYourWrites.getObject();
+            if (REPLICA_READS.contains(name)) {
+                if (recentWrites.recentlyWritten(currentCustomerId())
+                        || SINGLE_CUSTOMER_READS.contains(name) && recentWrites.recentlyWritten(args[0])
+                        || LIST_READS.contains(name) && changeCount.getObject().changedWithin(maxLag)) {
+                    return invokeTarget(method, args);
+                }
+                return readOnly().execute(status -> invokeUnchecked(method, args));
+            }
+            Object result = invokeTarget(method, args);
+            if (WRITES.contains(name)) {
+                written(recentWrites, name, args, result);
+            }
+            return result;
+        }
+
+        private static void written(CustomerReadYourWrites recentWrites, String method, Object[] args, Object result) {
+            switch (method) {
+                case "insertCustomer" -> {
+                    recentWrites.written(((Customer) args[0]).getEmail());
+                    ((Optional<?>) result).ifPresent(recentWrites::written);
+                }
+                case "insertCustomers" -> ((Map<?, ?>) result).forEach((email, id) -> {
+                    recentWrites.written(email);
+                    recentWrites.written(id);
+                });
+                case "updateCustomer" -> {
+                    Customer customer = (Customer) args[0];
+                    recentWrites.written(customer.getId());
+                    recentWrites.written(customer.getEmail());
+                }
+                default -> recentWrites.written(args[0]);
+            }
+            recentWrites.written(currentCustomerId());
+        }
+
+        private static Integer currentCustomerId() {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null) {
+                return null;
+            }
+            if (authentication.getPrincipal() instanceof CustomerPrincipal principal) {
+                return principal.id();
+            } else if (authentication.getPrincipal() instanceof Customer customer) {
+                return customer.getId();
+            }
+            return null;
+        }
+
+        private TransactionTemplate readOnly() {
+            TransactionTemplate template = readOnly;
+            if (template == null) {
+                template = new TransactionTemplate(transactionManager.getObject());
+                template.setReadOnly(true);
+                readOnly = template;
+            }
+            return template;
+        }
+
+        private Object invokeUnchecked(Method method, Object[] args) {
+            try {
+                return invokeTarget(method, args);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        private Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -2,11 +2,16 @@ package com.amigoscode.fullstack.customer;
 
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomerDTOMapper implements Function<Customer, CustomerDTO> {
+
+    static final List<String> ROLES = List.of("ROLE_USER");
+
     @Override
     public CustomerDTO apply(Customer customer) {
         return new CustomerDTO(
@@ -22,4 +27,31 @@ public class CustomerDTOMapper implements Function<Customer, CustomerDTO> {
                 customer.getUsername()
         );
     }
+
+    public CustomerDTO apply(CustomerProjection customer, Set<CustomerField> fields) {
+        return new CustomerDTO(
+                fields.contains(CustomerField.ID) ? customer.id() : null,
+                fields.contains(CustomerField.NAME) ? customer.name() : null,
+                fields.contains(CustomerField.EMAIL) ? customer.email() : null,
+                fields.contains(CustomerField.GENDER) ? customer.gender() : null,
+                fields.contains(CustomerField.AGE) ? customer.age() : null,
+                fields.contains(CustomerField.ROLES) ? ROLES : null,
+                fields.contains(CustomerField.USERNAME) ? customer.email() : null
+        );
+    }
+
+    public CustomerDTO retain(CustomerDTO customer, Set<CustomerField> fields) {
+        if (fields.equals(CustomerField.ALL)) {
+            return customer;
+        }
+        return new CustomerDTO(
+                fields.contains(CustomerField.ID) ? customer.id() : null,
+                fields.contains(CustomerField.NAME) ? customer.name() : null,
+                fields.contains(CustomerField.EMAIL) ? customer.email() : null,
+                fields.contains(CustomerField.GENDER) ? customer.gender() : null,
+                fields.contains(CustomerField.AGE) ? customer.age() : null,
+                fields.contains(CustomerField.ROLES) ? customer.roles() : null,
+                fields.contains(CustomerField.USERNAME) ? customer.username() : null
+        );
+    }
 }
@@ -0,0 +1,35 @@
+package com.amigoscode.fullstack.customer;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CustomerDataAccessRegistrar implements BeanDefinitionRegistryPostProcessor, EnvironmentAware {
+
+    public static final String CUSTOMER_DAO = "customerDAO";
+
+    private String dataAccess = "jpa";
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.dataAccess = environment.getProperty("customer.data-access", "jpa");
+    }
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        if (!registry.containsBeanDefinition(dataAccess)) {
+            throw new IllegalStateException(
+                    "customer.data-access [%s] does not name a CustomerDAO bean".formatted(dataAccess));
+        }
+        registry.registerAlias(dataAccess, CUSTOMER_DAO);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+    }
+}
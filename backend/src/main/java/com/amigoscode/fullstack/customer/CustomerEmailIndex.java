@@ -0,0 +1,72 @@
+package com.amigoscode.fullstack.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+
+@Component
+public class CustomerEmailIndex {
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final long MINIMUM_CAPACITY = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final double falsePositiveProbability;
+
+    private volatile EmailBloomFilter filter;
+    private volatile EmailBloomFilter rebuilding;
+
+    public CustomerEmailIndex(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${customer.email-index.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    public boolean mightContain(String email) {
+        EmailBloomFilter current = filter;
+        return current == null || current.mightContain(email);
+    }
+
+    public void add(String email) {
+        EmailBloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(email);
+        }
+        EmailBloomFilter current = filter;
+        if (current != null) {
+            current.add(email);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.email-index.rebuild-interval:PT1H}")
+    public void rebuild() {
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM customers", Long.class);
+        EmailBloomFilter next = new EmailBloomFilter(
+                Math.max(MINIMUM_CAPACITY, 2 * (count == null ? 0 : count)), falsePositiveProbability);
+        rebuilding = next;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement =
+                                connection.prepareStatement("SELECT customer_email FROM customers");
+                        statement.setFetchSize(FETCH_SIZE);
+                        return statement;
+                    },
+                    rs -> {
+                        next.add(rs.getString(1));
+                    }));
+            filter = next;
+        } finally {
+            rebuilding = null;
+        }
+    }
+}
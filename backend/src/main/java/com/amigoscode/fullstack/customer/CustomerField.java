@@ -0,0 +1,85 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum CustomerField {
+    ID("id", "id", "id"),
+    NAME("name", "customer_name", "name"),
+    EMAIL("email", "customer_email", "email"),
+    GENDER("gender", "gender", "gender"),
+    AGE("age", "customer_age", "age"),
+    ROLES("roles", null, null),
+    USERNAME("username", "customer_email", "email");
+
+    public static final Set<CustomerField> ALL = Collections.unmodifiableSet(EnumSet.allOf(CustomerField.class));
+
+    private final String parameter;
+    private final String column;
+    private final String attribute;
+
+    CustomerField(String parameter, String column, String attribute) {
+        this.parameter = parameter;
+        this.column = column;
+        this.attribute = attribute;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public static Set<CustomerField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        EnumSet<CustomerField> parsed = EnumSet.noneOf(CustomerField.class);
+        for (String name : fields.split(",")) {
+            String parameter = name.trim();
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                    .filter(field -> field.parameter.equals(parameter))
+                    .findFirst()
+                    .orElseThrow(() -> new RequestValidationException(
+                            "unknown field [%s], expected any of %s".formatted(parameter, parameters()))));
+        }
+        if (parsed.isEmpty()) {
+            return ALL;
+        }
+        return parsed.size() == values().length ? ALL : Collections.unmodifiableSet(parsed);
+    }
+
+    static Set<String> attributes(Set<CustomerField> fields) {
+        return fields.stream()
+                .map(CustomerField::attribute)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    static Set<String> columns(Set<CustomerField> fields) {
+        return fields.stream()
+                .map(CustomerField::column)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static String parameters() {
+        return Arrays.stream(values()).map(CustomerField::parameter).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,6 @@
+package com.amigoscode.fullstack.customer;
+
+public enum CustomerIdAllocation {
+    POOLED,
+    SEQUENCE
+}
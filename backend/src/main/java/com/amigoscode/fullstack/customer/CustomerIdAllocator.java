@@ -0,0 +1,64 @@
+package com.amigoscode.fullstack.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class CustomerIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerIdAllocation allocation;
+    private final Lock lock = new ReentrantLock();
+
+    private long incrementSize;
+    private long next = 1;
+    private long hi = 0;
+
+    public CustomerIdAllocator(JdbcTemplate jdbcTemplate,
+                               @Value("${customer.id-allocation:pooled}") CustomerIdAllocation allocation) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.allocation = allocation;
+    }
+
+    public Integer nextId() {
+        return nextIds(1).get(0);
+    }
+
+    public List<Integer> nextIds(int count) {
+        if (allocation == CustomerIdAllocation.SEQUENCE) {
+            return Collections.nCopies(count, null);
+        }
+        List<Integer> ids = new ArrayList<>(count);
+        lock.lock();
+        try {
+            while (ids.size() < count) {
+                if (next > hi) {
+                    allocateBlock();
+                }
+                ids.add(Math.toIntExact(next++));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return ids;
+    }
+
+    private void allocateBlock() {
+        if (incrementSize == 0) {
+            var sql = """
+                    SELECT increment_by FROM pg_sequences
+                    WHERE schemaname = current_schema() AND sequencename = 'customers_id_seq'
+                    """;
+            incrementSize = jdbcTemplate.queryForObject(sql, Long.class);
+        }
+        hi = jdbcTemplate.queryForObject("SELECT nextval('customers_id_seq')", Long.class);
+        next = Math.max(1, hi - incrementSize + 1);
+    }
+}
@@ -1,49 +1,192 @@
 package com.amigoscode.fullstack.customer;
 
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository("jdbc")
 public class CustomerJDBCService implements CustomerDAO{
 
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
+    private final CustomerIdAllocator customerIdAllocator;
 
-    public CustomerJDBCService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper) {
+    public CustomerJDBCService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper, CustomerIdAllocator customerIdAllocator) {
         this.jdbcTemplate = jdbcTemplate;
         this.customerRowMapper = customerRowMapper;
+        this.customerIdAllocator = customerIdAllocator;
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
+    public List<CustomerProjection> selectCustomerProjections(CustomerQuery query, int limit, Set<CustomerField> fields) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (query.minAge() != null) {
+            conditions.add("customer_age >= ?");
+            args.add(query.minAge());
+        }
+        if (query.maxAge() != null) {
+            conditions.add("customer_age <= ?");
+            args.add(query.maxAge());
+        }
+        if (query.gender() != null) {
+            conditions.add("gender = ?");
+            args.add(query.gender().name());
+        }
+        CustomerSort sort = query.sort();
+        String comparison = sort.descending() ? "<" : ">";
+        String direction = sort.descending() ? "DESC" : "ASC";
+        String sortColumn = sort.field().column();
+        if (query.after() != null && sort.field() == CustomerField.ID) {
+            conditions.add("id %s ?".formatted(comparison));
+            args.add(query.after().id());
+        } else if (query.after() != null) {
+            conditions.add("(%s, id) %s (?, ?)".formatted(sortColumn, comparison));
+            args.add(query.after().value());
+            args.add(query.after().id());
+        }
+        args.add(limit);
+        var sql = """
+                SELECT %s FROM customers
+                %s
+                ORDER BY %s LIMIT ?
+                """.formatted(
+                projectedColumns(fields),
+                conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions),
+                sort.field() == CustomerField.ID
+                        ? "id " + direction
+                        : "%s %s, id %s".formatted(sortColumn, direction, direction));
+
+        return jdbcTemplate.query(sql, projectionMapper(fields), args.toArray());
+    }
+
+    @Override
+    public Optional<CustomerProjection> selectCustomerProjectionById(Integer id, Set<CustomerField> fields) {
+        var sql = """
+                SELECT %s FROM customers WHERE id = ?
+                """.formatted(projectedColumns(fields));
+
+        return jdbcTemplate.query(sql, projectionMapper(fields), id).stream().findFirst();
+    }
+
+    @Override
+    public List<CustomerProjection> searchCustomerProjections(String query, int limit, Set<CustomerField> fields) {
+        var sql = CustomerSearch.rankedSql(projectedColumns(fields));
+
+        return jdbcTemplate.query(sql, projectionMapper(fields), CustomerSearch.rankedParameters(query, limit));
+    }
+
+    @Override
+    public long streamCustomerProjections(Set<CustomerField> fields, int fetchSize, Consumer<CustomerProjection> consumer) {
+        var sql = """
+                SELECT %s FROM customers ORDER BY id
+                """.formatted(projectedColumns(fields));
+        RowMapper<CustomerProjection> mapper = projectionMapper(fields);
+
+        long[] rows = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapper.mapRow(rs, (int) rows[0]++)));
+        return rows[0];
+    }
+
+    private static String projectedColumns(Set<CustomerField> fields) {
+        Set<String> columns = new LinkedHashSet<>(List.of("id", "version"));
+        columns.addAll(CustomerField.columns(fields));
+        return String.join(", ", columns);
+    }
+
+    private static RowMapper<CustomerProjection> projectionMapper(Set<CustomerField> fields) {
+        Set<String> columns = CustomerField.columns(fields);
+        boolean name = columns.contains("customer_name");
+        boolean email = columns.contains("customer_email");
+        boolean gender = columns.contains("gender");
+        boolean age = columns.contains("customer_age");
+        return (rs, rowNum) -> new CustomerProjection(
+                rs.getInt("id"),
+                name ? rs.getString("customer_name") : null,
+                email ? rs.getString("customer_email") : null,
+                gender ? Gender.valueOf(rs.getString("gender")) : null,
+                age ? rs.getInt("customer_age") : null,
+                rs.getInt("version"));
+    }
+
+    @Override
+    public Optional<Integer> selectCustomerVersion(Integer id) {
+        var sql = """
+                SELECT version FROM customers WHERE id = ?
+                """;
 
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("version"), id).stream().findFirst();
+    }
+
+    @Override
+    public long selectCustomersChangeCount() {
         var sql = """
-                SELECT id, customer_name, customer_email, password, customer_age, gender FROM customers
+                SELECT last_value FROM customers_change_seq
                 """;
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
+    }
 
-        return jdbcTemplate.query(sql, customerRowMapper);
+    @Override
+    public long advanceCustomersChangeCount() {
+        var sql = """
+                SELECT nextval('customers_change_seq')
+                """;
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count == null ? 0 : count;
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer id) {
+    public Optional<Integer> insertCustomer(Customer customer){
         var sql = """
-                SELECT id, customer_name, customer_email, password, customer_age, gender FROM customers WHERE id = ?
+                INSERT INTO customers(id, customer_name, customer_email, password, customer_age, gender)
+                VALUES (COALESCE(?, nextval('customers_id_seq')), ?, ?, ?, ?, ?)
+                ON CONFLICT (customer_email) DO NOTHING
+                RETURNING id
                 """;
+        return jdbcTemplate.query(
+                sql, (rs, rowNum) -> rs.getInt("id"),
+                customerIdAllocator.nextId(), customer.getName(), customer.getEmail(), customer.getPassword(), customer.getAge(), customer.getGender().name())
+                .stream().findFirst();
+    }
 
-        return jdbcTemplate.query(sql, customerRowMapper, id).stream().findFirst();
+    @Override
+    public Map<String, Integer> insertCustomers(List<Customer> customers) {
+        List<Integer> ids = customerIdAllocator.nextIds(customers.size());
+        return jdbcTemplate.execute((ConnectionCallback<Map<String, Integer>>) connection ->
+                CustomerBatchInsert.insert(connection, customers, ids));
     }
 
     @Override
-    public void insertCustomer(Customer customer){
+    public Set<String> selectExistingEmails(Collection<String> emails) {
         var sql = """
-                INSERT INTO customers(customer_name, customer_email, password, customer_age, gender)
-                VALUES (?, ?, ?, ?, ?)
+                SELECT customer_email FROM customers WHERE customer_email = ANY(?)
                 """;
-        jdbcTemplate.update(
-                sql, customer.getName(), customer.getEmail(), customer.getPassword(), customer.getAge(), customer.getGender().name());
+        return new HashSet<>(jdbcTemplate.query(sql, emailsSetter(emails), (rs, rowNum) -> rs.getString(1)));
+    }
+
+    private static PreparedStatementSetter emailsSetter(Collection<String> emails) {
+        return ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", emails.toArray()));
     }
 
     @Override
@@ -65,33 +208,43 @@ public class CustomerJDBCService implements CustomerDAO{
     }
 
     @Override
-    public void deleteCustomerById(Integer id) {
+    public boolean deleteCustomerById(Integer id) {
         var sql = """
-                DELETE FROM customers WHERE id = ?
+                DELETE FROM customers WHERE id = ? RETURNING id
                 """;
-        jdbcTemplate.update(sql, id);
+        return !jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("id"), id).isEmpty();
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        if(update.getName() != null){
-            String sql = "UPDATE customers SET customer_name = ? WHERE id = ?";
-            jdbcTemplate.update(sql, update.getName(), update.getId());
-        }
-        if(update.getAge() != null){
-            String sql = "UPDATE customers SET customer_age = ? WHERE id = ?";
-            jdbcTemplate.update(sql, update.getAge(), update.getId());
-        }
-        if(update.getEmail() != null){
-            String sql = "UPDATE customers SET customer_email = ? WHERE id = ?";
-            jdbcTemplate.update(sql, update.getEmail(), update.getId());
-        }
+    public Optional<String> updateCustomer(Customer update) {
+        var sql = """
+                UPDATE customers c SET
+                    customer_name = COALESCE(?, c.customer_name),
+                    customer_email = COALESCE(?, c.customer_email),
+                    customer_age = COALESCE(?, c.customer_age),
+                    version = c.version + 1
+                FROM customers previous
+                WHERE c.id = ? AND c.version = ? AND previous.id = c.id
+                RETURNING previous.customer_email
+                """;
+        return jdbcTemplate.queryForList(
+                sql, String.class, update.getName(), update.getEmail(), update.getAge(), update.getId(), update.getVersion())
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public void updateCustomerPassword(Integer id, String password) {
+        var sql = """
+                UPDATE customers SET password = ? WHERE id = ?
+                """;
+        jdbcTemplate.update(sql, password, id);
     }
 
     @Override
     public Optional<Customer> selectUserByEmail(String email) {
         var sql = """
-                SELECT id, customer_name, customer_email, password, customer_age, gender FROM customers WHERE customer_email = ?
+                SELECT id, customer_name, customer_email, password, customer_age, gender, version FROM customers WHERE customer_email = ?
                 """;
 
         return jdbcTemplate.query(sql, customerRowMapper, email).stream().findFirst();
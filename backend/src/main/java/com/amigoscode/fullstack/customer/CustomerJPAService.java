@@ -2,34 +2,82 @@ package com.amigoscode.fullstack.customer;
 
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository("jpa")
 public class CustomerJPAService implements CustomerDAO {
 
     private CustomerRepository customerRepository;
+    private final CustomerIdAllocator customerIdAllocator;
 
-    public CustomerJPAService(CustomerRepository customerRepository) {
+    public CustomerJPAService(CustomerRepository customerRepository, CustomerIdAllocator customerIdAllocator) {
 
         this.customerRepository = customerRepository;
+        this.customerIdAllocator = customerIdAllocator;
     }
 
     @Override
-    public List<Customer> selectAllCustomers() {
+    public List<CustomerProjection> selectCustomerProjections(CustomerQuery query, int limit, Set<CustomerField> fields) {
 
-        return customerRepository.findAll();
+        return customerRepository.findProjections(query, limit, fields);
     }
 
     @Override
-    public Optional<Customer> selectCustomerById(Integer id) {
+    public Optional<CustomerProjection> selectCustomerProjectionById(Integer id, Set<CustomerField> fields) {
 
-        return customerRepository.findById(id);
+        return customerRepository.findProjectionById(id, fields);
     }
 
     @Override
-    public void insertCustomer(Customer customer) {
-        customerRepository.save(customer);
+    public List<CustomerProjection> searchCustomerProjections(String query, int limit, Set<CustomerField> fields) {
+
+        return customerRepository.searchProjections(query, limit, fields);
+    }
+
+    @Override
+    public long streamCustomerProjections(Set<CustomerField> fields, int fetchSize, Consumer<CustomerProjection> consumer) {
+
+        return customerRepository.streamProjections(fields, fetchSize, consumer);
+    }
+
+    @Override
+    public Optional<Integer> selectCustomerVersion(Integer id) {
+
+        return customerRepository.findVersionById(id);
+    }
+
+    @Override
+    public long selectCustomersChangeCount() {
+
+        return customerRepository.customersChangeCount();
+    }
+
+    @Override
+    public long advanceCustomersChangeCount() {
+
+        return customerRepository.advanceCustomersChangeCount();
+    }
+
+    @Override
+    public Optional<Integer> insertCustomer(Customer customer) {
+        return customerRepository.insertIfEmailAbsent(
+                customerIdAllocator.nextId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getPassword(),
+                customer.getAge(),
+                customer.getGender().name()).map(Long::intValue);
+    }
+
+    @Override
+    public Map<String, Integer> insertCustomers(List<Customer> customers) {
+        return customerRepository.insertIfEmailAbsent(customers, customerIdAllocator.nextIds(customers.size()));
     }
 
     @Override
@@ -38,6 +86,12 @@ public class CustomerJPAService implements CustomerDAO {
         return customerRepository.existsCustomerByEmail(email);
     }
 
+    @Override
+    public Set<String> selectExistingEmails(Collection<String> emails) {
+
+        return new HashSet<>(customerRepository.findExistingEmails(emails));
+    }
+
     @Override
     public boolean existsPersonWithId(Integer id) {
 
@@ -45,8 +99,18 @@ public class CustomerJPAService implements CustomerDAO {
     }
 
     @Override
-    public void updateCustomer(Customer update) {
-        customerRepository.save(update);
+    public Optional<String> updateCustomer(Customer update) {
+        return customerRepository.updateCustomer(
+                update.getId(),
+                update.getVersion(),
+                update.getName(),
+                update.getEmail(),
+                update.getAge());
+    }
+
+    @Override
+    public void updateCustomerPassword(Integer id, String password) {
+        customerRepository.updatePassword(id, password);
     }
 
     @Override
@@ -55,8 +119,8 @@ public class CustomerJPAService implements CustomerDAO {
     }
 
     @Override
-    public void deleteCustomerById(Integer id) {
-        customerRepository.deleteById(id);
+    public boolean deleteCustomerById(Integer id) {
+        return customerRepository.deleteCustomerById(id) > 0;
     }
 
 }
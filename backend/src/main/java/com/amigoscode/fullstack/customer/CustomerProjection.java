@@ -0,0 +1,10 @@
+package com.amigoscode.fullstack.customer;
+
+public record CustomerProjection(
+        Integer id,
+        String name,
+        String email,
+        Gender gender,
+        Integer age,
+        Integer version
+) {}
@@ -0,0 +1,13 @@
+package com.amigoscode.fullstack.customer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public interface CustomerProjectionRepository {
+    List<CustomerProjection> findProjections(CustomerQuery query, int limit, Set<CustomerField> fields);
+    Optional<CustomerProjection> findProjectionById(Integer id, Set<CustomerField> fields);
+    List<CustomerProjection> searchProjections(String query, int limit, Set<CustomerField> fields);
+    long streamProjections(Set<CustomerField> fields, int fetchSize, Consumer<CustomerProjection> consumer);
+}
@@ -0,0 +1,150 @@
+package com.amigoscode.fullstack.customer;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CustomerProjectionRepositoryImpl implements CustomerProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    public CustomerProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<CustomerProjection> findProjections(CustomerQuery query, int limit, Set<CustomerField> fields) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (query.minAge() != null) {
+            conditions.add("c.age >= :minAge");
+            parameters.put("minAge", query.minAge());
+        }
+        if (query.maxAge() != null) {
+            conditions.add("c.age <= :maxAge");
+            parameters.put("maxAge", query.maxAge());
+        }
+        if (query.gender() != null) {
+            conditions.add("c.gender = :gender");
+            parameters.put("gender", query.gender());
+        }
+        CustomerSort sort = query.sort();
+        String comparison = sort.descending() ? "<" : ">";
+        String direction = sort.descending() ? "DESC" : "ASC";
+        String sortAttribute = "c." + sort.field().attribute();
+        if (query.after() != null && sort.field() == CustomerField.ID) {
+            conditions.add("c.id %s :afterId".formatted(comparison));
+            parameters.put("afterId", query.after().id());
+        } else if (query.after() != null) {
+            conditions.add("(%s, c.id) %s (:afterValue, :afterId)".formatted(sortAttribute, comparison));
+            parameters.put("afterValue", query.after().value());
+            parameters.put("afterId", query.after().id());
+        }
+        String jpql = select(fields)
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + (sort.field() == CustomerField.ID
+                        ? " ORDER BY c.id " + direction
+                        : " ORDER BY %s %s, c.id %s".formatted(sortAttribute, direction, direction));
+        TypedQuery<Tuple> page = entityManager.createQuery(jpql, Tuple.class);
+        parameters.forEach(page::setParameter);
+        return page
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(CustomerProjectionRepositoryImpl::toProjection)
+                .toList();
+    }
+
+    @Override
+    public Optional<CustomerProjection> findProjectionById(Integer id, Set<CustomerField> fields) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                select(fields) + " WHERE c.id = :id", Tuple.class);
+        return query
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .map(CustomerProjectionRepositoryImpl::toProjection);
+    }
+
+    @Override
+    public List<CustomerProjection> searchProjections(String query, int limit, Set<CustomerField> fields) {
+        Query search = entityManager.createNativeQuery(CustomerSearch.rankedSql("id"));
+        Object[] parameters = CustomerSearch.rankedParameters(query, limit);
+        for (int i = 0; i < parameters.length; i++) {
+            search.setParameter(i + 1, parameters[i]);
+        }
+        List<Integer> ids = ((List<?>) search.getResultList()).stream()
+                .map(id -> ((Number) id).intValue())
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, CustomerProjection> projections = entityManager
+                .createQuery(select(fields) + " WHERE c.id IN :ids", Tuple.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .map(CustomerProjectionRepositoryImpl::toProjection)
+                .collect(Collectors.toMap(CustomerProjection::id, Function.identity()));
+        return ids.stream()
+                .map(projections::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public long streamProjections(Set<CustomerField> fields, int fetchSize, Consumer<CustomerProjection> consumer) {
+        TypedQuery<Tuple> query = entityManager.createQuery(
+                select(fields) + " ORDER BY c.id ASC", Tuple.class);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        long rows = 0;
+        try (Stream<Tuple> tuples = query.getResultStream()) {
+            Iterator<Tuple> iterator = tuples.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(toProjection(iterator.next()));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static String select(Set<CustomerField> fields) {
+        StringBuilder jpql = new StringBuilder("SELECT c.id AS id, c.version AS version");
+        for (String attribute : CustomerField.attributes(fields)) {
+            if (!attribute.equals("id")) {
+                jpql.append(", c.").append(attribute).append(" AS ").append(attribute);
+            }
+        }
+        return jpql.append(" FROM Customer c").toString();
+    }
+
+    private static CustomerProjection toProjection(Tuple tuple) {
+        return new CustomerProjection(
+                tuple.get("id", Integer.class),
+                value(tuple, "name", String.class),
+                value(tuple, "email", String.class),
+                value(tuple, "gender", Gender.class),
+                value(tuple, "age", Integer.class),
+                tuple.get("version", Integer.class));
+    }
+
+    private static <T> T value(Tuple tuple, String alias, Class<T> type) {
+        return tuple.getElements().stream().anyMatch(element -> alias.equals(element.getAlias()))
+                ? tuple.get(alias, type)
+                : null;
+    }
+}
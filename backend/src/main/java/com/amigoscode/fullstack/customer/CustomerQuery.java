@@ -0,0 +1,59 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+
+public record CustomerQuery(
+        Integer minAge,
+        Integer maxAge,
+        Gender gender,
+        CustomerSort sort,
+        CustomerCursor after
+) {
+
+    public static final CustomerQuery ALL = new CustomerQuery(null, null, null, CustomerSort.ID, null);
+
+    public static CustomerQuery parse(Integer minAge, Integer maxAge, String gender, String sort, String after) {
+        if (minAge != null && minAge < 0 || maxAge != null && maxAge < 0) {
+            throw new RequestValidationException("minAge and maxAge must not be negative");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new RequestValidationException(
+                    "minAge [%s] must not be greater than maxAge [%s]".formatted(minAge, maxAge));
+        }
+        CustomerSort customerSort = CustomerSort.parse(sort);
+        return new CustomerQuery(
+                minAge,
+                maxAge,
+                parseGender(gender),
+                customerSort,
+                CustomerCursor.decode(after, customerSort));
+    }
+
+    public static CustomerQuery after(Integer id) {
+        return id == null ? ALL : ALL.after(new CustomerCursor(CustomerSort.ID, id, id));
+    }
+
+    public CustomerQuery after(CustomerCursor cursor) {
+        return new CustomerQuery(minAge, maxAge, gender, sort, cursor);
+    }
+
+    public String key() {
+        return "%s:%s:%s:%s:%s".formatted(
+                minAge == null ? "" : minAge,
+                maxAge == null ? "" : maxAge,
+                gender == null ? "" : gender,
+                sort.parameter(),
+                after == null ? "" : after.encode());
+    }
+
+    private static Gender parseGender(String gender) {
+        if (gender == null || gender.isBlank()) {
+            return null;
+        }
+        try {
+            return Gender.valueOf(gender.strip().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException("gender [%s] is not one of MALE, FEMALE".formatted(gender));
+        }
+    }
+}
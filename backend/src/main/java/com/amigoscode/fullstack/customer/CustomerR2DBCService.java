@@ -0,0 +1,66 @@
+package com.amigoscode.fullstack.customer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository("r2dbc")
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class CustomerR2DBCService implements ReactiveCustomerDAO {
+
+    private final DatabaseClient databaseClient;
+    private final CustomerReactiveRowMapper customerRowMapper;
+
+    public CustomerR2DBCService(DatabaseClient databaseClient, CustomerReactiveRowMapper customerRowMapper) {
+        this.databaseClient = databaseClient;
+        this.customerRowMapper = customerRowMapper;
+    }
+
+    @Override
+    public Flux<Customer> selectCustomers(Integer after, int limit) {
+        var sql = """
+                SELECT id, customer_name, customer_email, customer_age, gender, version FROM customers
+                WHERE id > $1 ORDER BY id LIMIT $2
+                """;
+        return databaseClient.sql(sql)
+                .bind(0, after == null ? 0 : after)
+                .bind(1, limit)
+                .map(customerRowMapper)
+                .all();
+    }
+
+    @Override
+    public Mono<Customer> selectCustomerById(Integer id) {
+        var sql = """
+                SELECT id, customer_name, customer_email, customer_age, gender, version FROM customers WHERE id = $1
+                """;
+        return databaseClient.sql(sql)
+                .bind(0, id)
+                .map(customerRowMapper)
+                .one();
+    }
+
+    @Override
+    public Mono<Customer> selectUserByEmail(String email) {
+        var sql = """
+                SELECT id, customer_name, customer_email, password, customer_age, gender, version FROM customers WHERE customer_email = $1
+                """;
+        return databaseClient.sql(sql)
+                .bind(0, email)
+                .map(customerRowMapper)
+                .one();
+    }
+
+    @Override
+    public Mono<Void> updateCustomerPassword(Integer id, String password) {
+        var sql = """
+                UPDATE customers SET password = $1 WHERE id = $2
+                """;
+        return databaseClient.sql(sql)
+                .bind(0, password)
+                .bind(1, id)
+                .then();
+    }
+}
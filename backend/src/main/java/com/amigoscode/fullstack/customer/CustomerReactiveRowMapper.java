@@ -0,0 +1,25 @@
+package com.amigoscode.fullstack.customer;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiFunction;
+
+@Component
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class CustomerReactiveRowMapper implements BiFunction<Row, RowMetadata, Customer> {
+    @Override
+    public Customer apply(Row row, RowMetadata metadata) {
+        Customer customer = new Customer(
+                row.get("id", Integer.class),
+                row.get("customer_name", String.class),
+                row.get("customer_email", String.class),
+                metadata.contains("password") ? row.get("password", String.class) : null,
+                row.get("customer_age", Integer.class),
+                Gender.valueOf(row.get("gender", String.class)));
+        customer.setVersion(row.get("version", Integer.class));
+        return customer;
+    }
+}
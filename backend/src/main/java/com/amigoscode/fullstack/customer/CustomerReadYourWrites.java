@@ -0,0 +1,39 @@
+package com.amigoscode.fullstack.customer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "customer.replica.enabled", havingValue = "true")
+public class CustomerReadYourWrites {
+
+    private final Cache<Object, Boolean> recentWrites;
+
+    public CustomerReadYourWrites(
+            @Value("${customer.replica.read-your-writes-window:PT10S}") Duration window,
+            @Value("${customer.replica.read-your-writes-maximum-size:100000}") long maximumSize) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public void written(Object key) {
+        if (key != null) {
+            recentWrites.put(normalize(key), Boolean.TRUE);
+        }
+    }
+
+    public boolean recentlyWritten(Object key) {
+        return key != null && recentWrites.getIfPresent(normalize(key)) != null;
+    }
+
+    private static Object normalize(Object key) {
+        return key instanceof String email ? email.toLowerCase() : key;
+    }
+}
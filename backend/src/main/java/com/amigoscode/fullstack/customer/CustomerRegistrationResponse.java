@@ -0,0 +1,4 @@
+package com.amigoscode.fullstack.customer;
+
+public record CustomerRegistrationResponse(Integer id) {
+}
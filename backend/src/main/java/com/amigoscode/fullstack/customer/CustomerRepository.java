@@ -1,13 +1,72 @@
 package com.amigoscode.fullstack.customer;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+public interface CustomerRepository extends JpaRepository<Customer, Integer>, CustomerProjectionRepository, CustomerBatchRepository {
     boolean existsCustomerByEmail(String email);
     boolean existsCustomerById(Integer id);
     Optional<Customer> findCustomerByEmail(String email);
+
+    @Query("SELECT c.version FROM Customer c WHERE c.id = :id")
+    Optional<Integer> findVersionById(@Param("id") Integer id);
+
+    @Query(value = "SELECT last_value FROM customers_change_seq", nativeQuery = true)
+    long customersChangeCount();
+
+    @Query(value = "SELECT nextval('customers_change_seq')", nativeQuery = true)
+    long advanceCustomersChangeCount();
+
+    @Query("SELECT c.email FROM Customer c WHERE c.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Transactional
+    @Query(value = """
+            INSERT INTO customers(id, customer_name, customer_email, password, customer_age, gender)
+            VALUES (COALESCE(:id, nextval('customers_id_seq')), :name, :email, :password, :age, :gender)
+            ON CONFLICT (customer_email) DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<Long> insertIfEmailAbsent(@Param("id") Integer id,
+                                       @Param("name") String name,
+                                       @Param("email") String email,
+                                       @Param("password") String password,
+                                       @Param("age") Integer age,
+                                       @Param("gender") String gender);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id = :id")
+    int deleteCustomerById(@Param("id") Integer id);
+
+    @Transactional
+    @Query(value = """
+            UPDATE customers c SET
+                customer_name = COALESCE(:name, c.customer_name),
+                customer_email = COALESCE(:email, c.customer_email),
+                customer_age = COALESCE(:age, c.customer_age),
+                version = c.version + 1
+            FROM customers previous
+            WHERE c.id = :id AND c.version = :version AND previous.id = c.id
+            RETURNING previous.customer_email
+            """, nativeQuery = true)
+    Optional<String> updateCustomer(@Param("id") Integer id,
+                                    @Param("version") Integer version,
+                                    @Param("name") String name,
+                                    @Param("email") String email,
+                                    @Param("age") Integer age);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Customer c SET c.password = :password WHERE c.id = :id")
+    int updatePassword(@Param("id") Integer id, @Param("password") String password);
 }
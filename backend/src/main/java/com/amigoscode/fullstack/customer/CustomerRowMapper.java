@@ -17,6 +17,7 @@ public class CustomerRowMapper implements RowMapper<Customer> {
                 rs.getString("password"),
                 rs.getInt("customer_age"),
                 Gender.valueOf(rs.getString("gender")));
+        customer.setVersion(rs.getInt("version"));
         return customer;
     }
 }
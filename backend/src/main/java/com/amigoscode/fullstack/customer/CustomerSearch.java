@@ -0,0 +1,43 @@
+package com.amigoscode.fullstack.customer;
+
+final class CustomerSearch {
+
+    static final char LIKE_ESCAPE = '!';
+
+    private static final String RANKED_SQL = """
+            SELECT %s FROM customers
+            JOIN (
+                (SELECT id FROM customers WHERE customer_name ILIKE ? ESCAPE '!'
+                 ORDER BY customer_name <-> ? LIMIT ?)
+                UNION
+                (SELECT id FROM customers WHERE customer_email ILIKE ? ESCAPE '!'
+                 ORDER BY customer_email <-> ? LIMIT ?)
+            ) candidates USING (id)
+            ORDER BY least(customer_name <-> ?, customer_email <-> ?), id
+            LIMIT ?
+            """;
+
+    private CustomerSearch() {
+    }
+
+    static String containsPattern(String query) {
+        StringBuilder pattern = new StringBuilder(query.length() + 2).append('%');
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                pattern.append(LIKE_ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    static String rankedSql(String columns) {
+        return RANKED_SQL.formatted(columns);
+    }
+
+    static Object[] rankedParameters(String query, int limit) {
+        String pattern = containsPattern(query);
+        return new Object[]{pattern, query, limit, pattern, query, limit, query, query, limit};
+    }
+}
@@ -1,92 +1,388 @@
 package com.amigoscode.fullstack.customer;
 
 import com.amigoscode.fullstack.exception.DuplicateResourceException;
+import com.amigoscode.fullstack.exception.PreconditionFailedException;
 import com.amigoscode.fullstack.exception.RequestValidationException;
 import com.amigoscode.fullstack.exception.ResourceNotFound;
+import com.amigoscode.fullstack.exception.ServiceOverloadedException;
+import com.amigoscode.fullstack.exception.StaleResourceException;
+import com.amigoscode.fullstack.jwt.TokenVersionRegistry;
+import com.amigoscode.fullstack.securiry.BoundedPasswordEncoder;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomerService {
 
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MIN_SEARCH_LENGTH = 3;
+    static final int MAX_SEARCH_SIZE = 100;
+    private static final Set<CustomerField> UPDATABLE_FIELDS =
+            EnumSet.of(CustomerField.NAME, CustomerField.EMAIL, CustomerField.AGE);
     private final CustomerDAO customerDAO;
     private final CustomerDTOMapper customerDTOMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final CustomerChangeCount customerChangeCount;
+    private final CustomerEmailIndex customerEmailIndex;
 
 
-    public CustomerService(@Qualifier("jpa") CustomerDAO customerDAO, CustomerDTOMapper customerDTOMapper, PasswordEncoder passwordEncoder) {
+    public CustomerService(@Qualifier(CustomerDataAccessRegistrar.CUSTOMER_DAO) CustomerDAO customerDAO, CustomerDTOMapper customerDTOMapper, PasswordEncoder passwordEncoder, TokenVersionRegistry tokenVersionRegistry, CustomerChangeCount customerChangeCount, CustomerEmailIndex customerEmailIndex) {
         this.customerDAO = customerDAO;
         this.customerDTOMapper = customerDTOMapper;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.customerChangeCount = customerChangeCount;
+        this.customerEmailIndex = customerEmailIndex;
     }
 
-    public List<CustomerDTO> getAllCustomers() {
-        return customerDAO
-                .selectAllCustomers()
+    @Timed(value = "customer.service", histogram = true)
+    @Cacheable(cacheNames = CustomerCacheNames.CUSTOMER_PAGES,
+            key = "@customerChangeCount.current() + ':' + #query.key() + ':' + #limit + ':' + #fields")
+    public CustomerPage getCustomers(CustomerQuery query, int limit, Set<CustomerField> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_PAGE_SIZE));
+        }
+        Set<CustomerField> selected = fields;
+        if (!fields.contains(query.sort().field())) {
+            selected = EnumSet.copyOf(fields);
+            selected.add(query.sort().field());
+        }
+        List<CustomerProjection> customers = customerDAO.selectCustomerProjections(query, limit + 1, selected);
+        List<CustomerDTO> page = customers
+                .stream()
+                .limit(limit)
+                .map(customer -> customerDTOMapper.apply(customer, fields))
+                .toList();
+
+        if (customers.size() <= limit) {
+            return new CustomerPage(page, null);
+        }
+        return new CustomerPage(page, CustomerCursor.of(query.sort(), customers.get(limit - 1)).encode());
+    }
+
+    @Timed(value = "customer.service", histogram = true)
+    public List<CustomerDTO> searchCustomers(String query, int limit, Set<CustomerField> fields) {
+        String term = query == null ? "" : query.strip();
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            throw new RequestValidationException(
+                    "search query must be at least %s characters".formatted(MIN_SEARCH_LENGTH));
+        }
+        if (limit < 1 || limit > MAX_SEARCH_SIZE) {
+            throw new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_SEARCH_SIZE));
+        }
+        return customerDAO.searchCustomerProjections(term, limit, fields)
                 .stream()
-                .map(customerDTOMapper)
-                .collect(Collectors.toList());
+                .map(customer -> customerDTOMapper.apply(customer, fields))
+                .toList();
+    }
+
+    @Timed(value = "customer.service", histogram = true)
+    @Cacheable(cacheNames = CustomerCacheNames.CUSTOMERS, key = "#id")
+    public VersionedCustomer getVersionedCustomer(Integer id) {
+        return loadVersionedCustomer(id);
+    }
+
+    @CachePut(cacheNames = CustomerCacheNames.CUSTOMERS, key = "#id")
+    public VersionedCustomer reloadVersionedCustomer(Integer id) {
+        return loadVersionedCustomer(id);
     }
 
-    public CustomerDTO getCustomer(Integer id) {
+    private VersionedCustomer loadVersionedCustomer(Integer id) {
         return customerDAO.
-                selectCustomerById(id).
-                map(customerDTOMapper).
+                selectCustomerProjectionById(id, CustomerField.ALL).
+                map(customer -> new VersionedCustomer(
+                        customerDTOMapper.apply(customer, CustomerField.ALL), customerETag(id, customer.version()))).
                 orElseThrow(
                 () -> new ResourceNotFound("customer with id [%s] not found".formatted(id)));
     }
 
-    public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
-        String email = customerRegistrationRequest.email();
-
-        if (customerDAO.existsPersonWithEmail(email)) {
-            throw new DuplicateResourceException("email is already taken");
-        }
-        customerDAO.insertCustomer(
+    @Timed(value = "customer.service", histogram = true)
+    public Integer addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
+        Integer id = customerDAO.insertCustomer(
                 new Customer(
                         customerRegistrationRequest.name(),
-                        email,
+                        customerRegistrationRequest.email(),
                         passwordEncoder.encode(customerRegistrationRequest.password()),
                         customerRegistrationRequest.age(),
-                        customerRegistrationRequest.gender()));
+                        customerRegistrationRequest.gender()))
+                .orElseThrow(() -> new DuplicateResourceException("email is already taken"));
+        customerEmailIndex.add(customerRegistrationRequest.email());
+        customersChanged();
+        return id;
+    }
+
+    @Timed(value = "customer.service", histogram = true)
+    public EmailAvailability isEmailAvailable(String email) {
+        if (email == null || email.isBlank()) {
+            throw new RequestValidationException("email must not be blank");
+        }
+        boolean available = !customerEmailIndex.mightContain(email)
+                || !customerDAO.existsPersonWithEmail(email);
+        return new EmailAvailability(email, available);
+    }
+
+    @Timed(value = "customer.service", histogram = true)
+    public List<CustomerBatchResult> addCustomers(List<CustomerRegistrationRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new RequestValidationException(
+                    "batch must contain between 1 and %s customers".formatted(MAX_BATCH_SIZE));
+        }
+        CustomerBatchResult[] results = new CustomerBatchResult[requests.size()];
+        Map<String, Integer> indexByEmail = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CustomerRegistrationRequest request = requests.get(i);
+            if (!isComplete(request)) {
+                results[i] = new CustomerBatchResult(
+                        i, request == null ? null : request.email(), CustomerBatchStatus.INVALID, null, "missing required fields");
+            } else if (indexByEmail.putIfAbsent(request.email(), i) != null) {
+                results[i] = new CustomerBatchResult(
+                        i, request.email(), CustomerBatchStatus.DUPLICATE, null, "email is repeated in batch");
+            }
+        }
+
+        Set<String> existingEmails = indexByEmail.isEmpty()
+                ? Set.of()
+                : customerDAO.selectExistingEmails(indexByEmail.keySet());
+        List<Integer> candidates = new ArrayList<>();
+        indexByEmail.forEach((email, index) -> {
+            if (existingEmails.contains(email)) {
+                results[index] = new CustomerBatchResult(
+                        index, email, CustomerBatchStatus.DUPLICATE, null, "email is already taken");
+            } else {
+                candidates.add(index);
+            }
+        });
+
+        List<CompletableFuture<String>> hashes = encodePasswords(candidates
+                .stream()
+                .map(index -> requests.get(index).password())
+                .toList());
+        List<Customer> customers = new ArrayList<>();
+        List<Integer> hashed = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Integer index = candidates.get(i);
+            CustomerRegistrationRequest request = requests.get(index);
+            try {
+                customers.add(new Customer(
+                        request.name(),
+                        request.email(),
+                        hashes.get(i).join(),
+                        request.age(),
+                        request.gender()));
+                hashed.add(index);
+            } catch (CompletionException e) {
+                if (!(e.getCause() instanceof ServiceOverloadedException overloaded)) {
+                    throw e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+                results[index] = new CustomerBatchResult(
+                        index, request.email(), CustomerBatchStatus.OVERLOADED, null, overloaded.getMessage());
+            }
+        }
+
+        if (!customers.isEmpty()) {
+            Map<String, Integer> ids = customerDAO.insertCustomers(customers);
+            ids.keySet().forEach(customerEmailIndex::add);
+            customersChanged();
+            for (Integer index : hashed) {
+                String email = requests.get(index).email();
+                Integer id = ids.get(email);
+                results[index] = id == null
+                        ? new CustomerBatchResult(index, email, CustomerBatchStatus.DUPLICATE, null, "email is already taken")
+                        : new CustomerBatchResult(index, email, CustomerBatchStatus.CREATED, id, null);
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<CompletableFuture<String>> encodePasswords(List<String> rawPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder) {
+            return boundedPasswordEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords
+                .stream()
+                .map(rawPassword -> {
+                    try {
+                        return CompletableFuture.completedFuture(passwordEncoder.encode(rawPassword));
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.<String>failedFuture(e);
+                    }
+                })
+                .toList();
+    }
+
+    private static boolean isComplete(CustomerRegistrationRequest request) {
+        return request != null
+                && request.name() != null
+                && request.email() != null && !request.email().isBlank()
+                && request.password() != null
+                && request.age() != null
+                && request.gender() != null;
     }
 
+    @Timed(value = "customer.service", histogram = true)
+    @CacheEvict(cacheNames = CustomerCacheNames.CUSTOMERS, key = "#id")
     public void deleteCustomerById(Integer id) {
-        if (!customerDAO.existsPersonWithId(id)) {
+        if (!customerDAO.deleteCustomerById(id)) {
             throw new ResourceNotFound("customer with id [%s] not found".formatted(id));
         }
-        customerDAO.deleteCustomerById(id);
+        customersChanged();
+        tokenVersionRegistry.revoke(id);
     }
 
-    public void updateCustomer(Integer id, CustomerUpdateRequest updateRequest) {
-        Customer customer = customerDAO.
-                selectCustomerById(id).
+    public void customersImported(Collection<String> emails) {
+        emails.forEach(customerEmailIndex::add);
+        customersChanged();
+    }
+
+    public String getCustomerETag(Integer id) {
+        return customerDAO.
+                selectCustomerVersion(id).
+                map(version -> customerETag(id, version)).
+                orElseThrow(
+                        () -> new ResourceNotFound("customer with id [%s] not found".formatted(id)));
+    }
+
+    public String getCustomersETag(CustomerQuery query, int limit, Set<CustomerField> fields) {
+        return "\"%d-%08x-%d-%08x\"".formatted(
+                customerChangeCount.current(), query.key().hashCode(), limit, fieldsKey(fields).hashCode());
+    }
+
+    private static String fieldsKey(Set<CustomerField> fields) {
+        return fields.stream()
+                .map(CustomerField::parameter)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    static String customerETag(Integer id, int version) {
+        return "\"%d-%d\"".formatted(id, version);
+    }
+
+    private void customersChanged() {
+        customerChangeCount.advance();
+    }
+
+    @Timed(value = "customer.service", histogram = true)
+    @CacheEvict(cacheNames = CustomerCacheNames.CUSTOMERS, key = "#id")
+    public String updateCustomer(Integer id, CustomerUpdateRequest updateRequest, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return updateCustomer(id, updateRequest);
+        }
+        Integer expectedVersion = matchedVersion(id, ifMatch);
+        Customer update = new Customer();
+        update.setId(id);
+        update.setVersion(expectedVersion);
+        update.setName(updateRequest.name());
+        update.setEmail(updateRequest.email());
+        update.setAge(updateRequest.age());
+        if (update.getName() == null && update.getEmail() == null && update.getAge() == null) {
+            throw new RequestValidationException("no changes found");
+        }
+        Optional<String> previousEmail = applyUpdate(update);
+        if (previousEmail.isEmpty()) {
+            if (!customerDAO.existsPersonWithId(id)) {
+                throw new ResourceNotFound("customer with id [%s] not found".formatted(id));
+            }
+            throw new PreconditionFailedException(
+                    "customer with id [%s] does not match %s".formatted(id, ifMatch));
+        }
+        boolean emailChanged = update.getEmail() != null && !update.getEmail().equals(previousEmail.get());
+        afterUpdate(id, emailChanged ? update.getEmail() : null);
+        return customerETag(id, expectedVersion + 1);
+    }
+
+    private Integer matchedVersion(Integer id, String ifMatch) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                continue;
+            }
+            String[] parts = tag.substring(1, tag.length() - 1).split("-");
+            if (parts.length == 2 && parts[0].equals(String.valueOf(id))) {
+                try {
+                    return Integer.valueOf(parts[1]);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        throw new PreconditionFailedException(
+                "customer with id [%s] does not match %s".formatted(id, ifMatch));
+    }
+
+    private Optional<String> applyUpdate(Customer update) {
+        try {
+            return customerDAO.updateCustomer(update);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("email is already taken");
+        }
+    }
+
+    private void afterUpdate(Integer id, String newEmail) {
+        customersChanged();
+        if (newEmail != null) {
+            customerEmailIndex.add(newEmail);
+            tokenVersionRegistry.revoke(id);
+        }
+    }
+
+    @Timed(value = "customer.service", histogram = true)
+    @CacheEvict(cacheNames = CustomerCacheNames.CUSTOMERS, key = "#id")
+    public String updateCustomer(Integer id, CustomerUpdateRequest updateRequest) {
+        CustomerProjection customer = customerDAO.
+                selectCustomerProjectionById(id, UPDATABLE_FIELDS).
                 orElseThrow(
                         () -> new ResourceNotFound("customer with id [%s] not found".formatted(id)));
 
+        Customer update = new Customer();
+        update.setId(id);
+        update.setVersion(customer.version());
+
         boolean changes = false;
-        if (updateRequest.name() != null && !updateRequest.name().equals(customer.getName())) {
-            customer.setName(updateRequest.name());
+        boolean emailChanged = false;
+        if (updateRequest.name() != null && !updateRequest.name().equals(customer.name())) {
+            update.setName(updateRequest.name());
             changes = true;
         }
-        if (updateRequest.email() != null && !updateRequest.email().equals(customer.getEmail())) {
-            if (customerDAO.existsPersonWithEmail(updateRequest.email())) {
-                throw new DuplicateResourceException("email is already taken");
-            }
-            customer.setEmail(updateRequest.email());
+        if (updateRequest.email() != null && !updateRequest.email().equals(customer.email())) {
+            update.setEmail(updateRequest.email());
             changes = true;
+            emailChanged = true;
         }
-        if (updateRequest.age() != null && updateRequest.age() != customer.getAge()) {
-            customer.setAge(updateRequest.age());
+        if (updateRequest.age() != null && !updateRequest.age().equals(customer.age())) {
+            update.setAge(updateRequest.age());
             changes = true;
         }
         if (!changes) {
             throw new RequestValidationException("no changes found");
         }
-        customerDAO.updateCustomer(customer);
+
+        if (applyUpdate(update).isEmpty()) {
+            throw new StaleResourceException(
+                    "customer with id [%s] was modified concurrently, please retry".formatted(id));
+        }
+        afterUpdate(id, emailChanged ? updateRequest.email() : null);
+        return customerETag(id, customer.version() + 1);
     }
 }
@@ -0,0 +1,61 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public enum CustomerSort {
+    ID("id", CustomerField.ID, false),
+    ID_DESC("-id", CustomerField.ID, true),
+    NAME("name", CustomerField.NAME, false),
+    NAME_DESC("-name", CustomerField.NAME, true),
+    AGE("age", CustomerField.AGE, false),
+    AGE_DESC("-age", CustomerField.AGE, true);
+
+    private final String parameter;
+    private final CustomerField field;
+    private final boolean descending;
+
+    CustomerSort(String parameter, CustomerField field, boolean descending) {
+        this.parameter = parameter;
+        this.field = field;
+        this.descending = descending;
+    }
+
+    public String parameter() {
+        return parameter;
+    }
+
+    public CustomerField field() {
+        return field;
+    }
+
+    public boolean descending() {
+        return descending;
+    }
+
+    public static CustomerSort parse(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ID;
+        }
+        String parameter = sort.strip();
+        return Arrays.stream(values())
+                .filter(value -> value.parameter.equals(parameter))
+                .findFirst()
+                .orElseThrow(() -> new RequestValidationException(
+                        "unknown sort [%s], expected one of %s".formatted(parameter, parameters())));
+    }
+
+    Object value(CustomerProjection customer) {
+        return switch (field) {
+            case NAME -> customer.name();
+            case AGE -> customer.age();
+            default -> customer.id();
+        };
+    }
+
+    private static String parameters() {
+        return Arrays.stream(values()).map(CustomerSort::parameter).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,85 @@
+package com.amigoscode.fullstack.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+
+@Component
+public class CustomerStreamer {
+
+    private final CustomerDAO customerDAO;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public CustomerStreamer(
+            @Qualifier(CustomerDataAccessRegistrar.CUSTOMER_DAO) CustomerDAO customerDAO,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${customer.stream.fetch-size:1000}") int fetchSize) {
+        this.customerDAO = customerDAO;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    @Timed(value = "customer.stream", histogram = true)
+    public long writeCustomers(Set<CustomerField> fields, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartArray();
+            Long rows = readOnlyTransaction.execute(status -> customerDAO.streamCustomerProjections(
+                    fields, fetchSize, customer -> write(generator, customer, fields)));
+            generator.writeEndArray();
+            return rows == null ? 0 : rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void write(JsonGenerator generator, CustomerProjection customer, Set<CustomerField> fields) {
+        try {
+            generator.writeStartObject();
+            if (fields.contains(CustomerField.ID)) {
+                generator.writeNumberField("id", customer.id());
+            }
+            if (fields.contains(CustomerField.NAME)) {
+                generator.writeStringField("name", customer.name());
+            }
+            if (fields.contains(CustomerField.EMAIL)) {
+                generator.writeStringField("email", customer.email());
+            }
+            if (fields.contains(CustomerField.GENDER)) {
+                generator.writeStringField("gender", customer.gender().name());
+            }
+            if (fields.contains(CustomerField.AGE)) {
+                generator.writeNumberField("age", customer.age());
+            }
+            if (fields.contains(CustomerField.ROLES)) {
+                generator.writeArrayFieldStart("roles");
+                for (String role : CustomerDTOMapper.ROLES) {
+                    generator.writeString(role);
+                }
+                generator.writeEndArray();
+            }
+            if (fields.contains(CustomerField.USERNAME)) {
+                generator.writeStringField("username", customer.email());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
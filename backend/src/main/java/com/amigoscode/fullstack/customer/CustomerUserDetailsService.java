@@ -3,16 +3,17 @@ package com.amigoscode.fullstack.customer;
 import com.amigoscode.fullstack.exception.ResourceNotFound;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomerUserDetailsService implements UserDetailsService {
+public class CustomerUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final CustomerDAO customerDAO;
 
-    public CustomerUserDetailsService(@Qualifier("jpa") CustomerDAO customerDAO) {
+    public CustomerUserDetailsService(@Qualifier(CustomerDataAccessRegistrar.CUSTOMER_DAO) CustomerDAO customerDAO) {
         this.customerDAO = customerDAO;
     }
 
@@ -21,4 +22,17 @@ public class CustomerUserDetailsService implements UserDetailsService {
         return customerDAO.selectUserByEmail(username).orElseThrow(
                 ()->new ResourceNotFound("customer with username [%s] not found".formatted(username)));
     }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = (Customer) user;
+        customerDAO.updateCustomerPassword(customer.getId(), newPassword);
+        return new Customer(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                newPassword,
+                customer.getAge(),
+                customer.getGender());
+    }
 }
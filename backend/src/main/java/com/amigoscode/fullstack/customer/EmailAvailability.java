@@ -0,0 +1,6 @@
+package com.amigoscode.fullstack.customer;
+
+public record EmailAvailability(
+        String email,
+        boolean available
+) {}
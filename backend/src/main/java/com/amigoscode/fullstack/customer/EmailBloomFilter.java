@@ -0,0 +1,73 @@
+package com.amigoscode.fullstack.customer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class EmailBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public EmailBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact(Math.max(1, (bits + 63) / 64)));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0
+                    && !words.compareAndSet(word, current, current | mask)) {
+            }
+        }
+    }
+
+    public boolean mightContain(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,49 @@
+package com.amigoscode.fullstack.customer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.amigoscode.fullstack.customer.CustomerController.NEXT_CURSOR_HEADER;
+
+@RestController
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+@RequestMapping("/api/reactive/customers")
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @GetMapping()
+    public Mono<ResponseEntity<List<CustomerDTO>>> allCustomers(
+            @RequestParam(value = "after", required = false) Integer after,
+            @RequestParam(value = "limit", defaultValue = "50") int limit){
+        UriComponentsBuilder currentRequest = ServletUriComponentsBuilder.fromCurrentRequest();
+        return customerService.getCustomers(after, limit).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                String next = currentRequest
+                        .replaceQueryParam("after", page.nextCursor())
+                        .replaceQueryParam("limit", limit)
+                        .toUriString();
+                response.header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next))
+                        .header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.customers());
+        });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<CustomerDTO> getCustomer(@PathVariable("id") Integer id){
+        return customerService.getCustomer(id);
+    }
+}
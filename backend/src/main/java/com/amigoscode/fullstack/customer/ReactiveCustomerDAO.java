@@ -0,0 +1,11 @@
+package com.amigoscode.fullstack.customer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerDAO {
+    Flux<Customer> selectCustomers(Integer after, int limit);
+    Mono<Customer> selectCustomerById(Integer id);
+    Mono<Customer> selectUserByEmail(String email);
+    Mono<Void> updateCustomerPassword(Integer id, String password);
+}
@@ -0,0 +1,51 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+import com.amigoscode.fullstack.exception.ResourceNotFound;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static com.amigoscode.fullstack.customer.CustomerService.MAX_PAGE_SIZE;
+
+@Service
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerDAO customerDAO;
+    private final CustomerDTOMapper customerDTOMapper;
+
+    public ReactiveCustomerService(@Qualifier("r2dbc") ReactiveCustomerDAO customerDAO, CustomerDTOMapper customerDTOMapper) {
+        this.customerDAO = customerDAO;
+        this.customerDTOMapper = customerDTOMapper;
+    }
+
+    public Mono<CustomerPage> getCustomers(Integer after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new RequestValidationException(
+                    "limit must be between 1 and %s".formatted(MAX_PAGE_SIZE)));
+        }
+        return customerDAO
+                .selectCustomers(after, limit + 1)
+                .map(customerDTOMapper)
+                .collectList()
+                .map(customers -> {
+                    if (customers.size() <= limit) {
+                        return new CustomerPage(customers, null);
+                    }
+                    List<CustomerDTO> page = customers.subList(0, limit);
+                    return new CustomerPage(page, String.valueOf(page.get(limit - 1).id()));
+                });
+    }
+
+    public Mono<CustomerDTO> getCustomer(Integer id) {
+        return customerDAO
+                .selectCustomerById(id)
+                .map(customerDTOMapper)
+                .switchIfEmpty(Mono.error(
+                        () -> new ResourceNotFound("customer with id [%s] not found".formatted(id))));
+    }
+}
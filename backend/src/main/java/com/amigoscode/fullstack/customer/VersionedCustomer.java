@@ -0,0 +1,6 @@
+package com.amigoscode.fullstack.customer;
+
+public record VersionedCustomer(
+        CustomerDTO customer,
+        String eTag
+) {}
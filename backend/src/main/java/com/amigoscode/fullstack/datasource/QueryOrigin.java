@@ -0,0 +1,27 @@
+package com.amigoscode.fullstack.datasource;
+
+public final class QueryOrigin {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private QueryOrigin() {
+    }
+
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    public static String enter(String origin) {
+        String previous = CURRENT.get();
+        CURRENT.set(origin);
+        return previous;
+    }
+
+    public static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.amigoscode.fullstack.datasource;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.reactive.enabled", havingValue = "true")
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveDataSourceConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        R2dbcProperties.Pool pool = properties.getPool();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("reactive")
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
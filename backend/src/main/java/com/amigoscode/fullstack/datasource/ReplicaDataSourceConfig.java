@@ -0,0 +1,77 @@
+package com.amigoscode.fullstack.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(name = "customer.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${customer.replica.urls:}") List<String> urls,
+            @Value("${customer.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${customer.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${customer.replica.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${customer.replica.max-lag:PT5S}") Duration maxLag) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.strip())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public MeterBinder replicaLagMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> replicaRoutingDataSource.replicaLag().keySet().forEach(replica ->
+                Gauge.builder("customer.replica.lag", replicaRoutingDataSource, routing -> routing.replicaLag().get(replica))
+                        .description("Replica replay lag in milliseconds, -1 while reads are routed to the primary")
+                        .baseUnit("milliseconds")
+                        .tag("replica", replica)
+                        .register(registry));
+    }
+}
@@ -0,0 +1,121 @@
+package com.amigoscode.fullstack.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA_LAG_SQL = """
+            SELECT CAST(CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming')
+                    THEN COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, %d)
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END AS bigint)
+            """.formatted(Long.MAX_VALUE);
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxLag) {
+        this.maxLag = maxLag;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicas.get(i));
+            this.replicas.add(replica);
+            targets.put(replica.key, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.replica.lag-check-interval:PT1S}")
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                Long lag = replica.jdbcTemplate.queryForObject(REPLICA_LAG_SQL, Long.class);
+                replica.lag = lag == null ? 0 : lag;
+                healthy = replica.lag <= maxLag.toMillis();
+                if (!healthy && replica.healthy) {
+                    log.warn("{} is {} ms behind the primary, routing its reads to the primary", replica.key, replica.lag);
+                }
+            } catch (DataAccessException e) {
+                healthy = false;
+                if (replica.healthy) {
+                    log.warn("{} is unavailable, routing its reads to the primary", replica.key, e);
+                }
+            }
+            if (healthy && !replica.healthy) {
+                log.info("{} is {} ms behind the primary, routing reads to it", replica.key, replica.lag);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public Map<String, Long> replicaLag() {
+        Map<String, Long> lag = new HashMap<>();
+        replicas.forEach(replica -> lag.put(replica.key, replica.healthy ? replica.lag : -1));
+        return lag;
+    }
+
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+
+    private static class Replica {
+
+        private final String key;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy;
+        private volatile long lag;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+    }
+}
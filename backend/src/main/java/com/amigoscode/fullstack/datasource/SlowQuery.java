@@ -0,0 +1,21 @@
+package com.amigoscode.fullstack.datasource;
+
+import java.util.List;
+
+record SlowQuery(
+        String sql,
+        String origin,
+        List<Object> parameters,
+        boolean replayable,
+        long rows,
+        int batchSize,
+        long elapsedNanos) {
+
+    record Null(int sqlType) {
+
+        @Override
+        public String toString() {
+            return "null";
+        }
+    }
+}
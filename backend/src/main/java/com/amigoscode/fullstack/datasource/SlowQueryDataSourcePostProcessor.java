@@ -0,0 +1,379 @@
+package com.amigoscode.fullstack.datasource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "customer.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryDataSourcePostProcessor implements BeanPostProcessor, DisposableBean {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final Duration threshold;
+    private final Set<String> redactedColumns;
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryDataSourcePostProcessor(
+            @Value("${customer.slow-query.threshold:200ms}") Duration threshold,
+            @Value("${customer.slow-query.redacted-columns:password}") List<String> redactedColumns,
+            @Value("${customer.slow-query.explain:false}") boolean explain,
+            @Value("${customer.slow-query.explain-queue-capacity:16}") int explainQueueCapacity) {
+        this.threshold = threshold;
+        this.redactedColumns = redactedColumns.stream()
+                .map(column -> column.strip().toLowerCase(Locale.ROOT))
+                .filter(column -> !column.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.explainExecutor = explain
+                ? new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(explainQueueCapacity),
+                        new CustomizableThreadFactory("slow-query-explain-"),
+                        new ThreadPoolExecutor.AbortPolicy())
+                : null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return wrap(dataSource, new SlowQueryLogger(threshold, redactedColumns, dataSource, explainExecutor));
+    }
+
+    static DataSource wrap(DataSource dataSource, SlowQueryLogger logger) {
+        return proxy(DataSource.class, new DataSourceHandler(dataSource, logger));
+    }
+
+    @Override
+    public void destroy() {
+        if (explainExecutor != null) {
+            explainExecutor.shutdownNow();
+        }
+    }
+
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        private final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> handle(proxy, method, args);
+            };
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object invokeTarget(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    private static class DataSourceHandler extends DelegatingHandler {
+
+        private final SlowQueryLogger logger;
+
+        DataSourceHandler(DataSource target, SlowQueryLogger logger) {
+            super(target);
+            this.logger = logger;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(method, args);
+            if (method.getName().equals("getConnection")) {
+                return proxy(Connection.class, new ConnectionHandler((Connection) result, logger));
+            }
+            return result;
+        }
+    }
+
+    private static class ConnectionHandler extends DelegatingHandler {
+
+        private final SlowQueryLogger logger;
+
+        ConnectionHandler(Connection target, SlowQueryLogger logger) {
+            super(target);
+            this.logger = logger;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = invokeTarget(method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, null, logger));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, (String) args[0], logger));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, (String) args[0], logger));
+                default -> result;
+            };
+        }
+    }
+
+    private static class StatementHandler extends DelegatingHandler {
+
+        private final Statement target;
+        private final Connection connection;
+        private final String sql;
+        private final SlowQueryLogger logger;
+        private final TreeMap<Integer, Object> parameters = new TreeMap<>();
+        private boolean replayable = true;
+        private int batchSize;
+        private String batchSql;
+        private List<Object> batchParameters;
+        private Execution pending;
+
+        StatementHandler(Statement target, Connection connection, String sql, SlowQueryLogger logger) {
+            super(target);
+            this.target = target;
+            this.connection = connection;
+            this.sql = sql;
+            this.logger = logger;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(name, index, args[1]);
+                return invokeTarget(method, args);
+            }
+            if (name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            }
+            switch (name) {
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "clearParameters" -> {
+                    parameters.clear();
+                    replayable = true;
+                }
+                case "addBatch" -> addBatch(args);
+                case "clearBatch" -> clearBatch();
+                case "getMoreResults", "close" -> finish(pending);
+                default -> {
+                }
+            }
+            Object result = invokeTarget(method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet
+                    && pending != null && !pending.finished) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, (Statement) proxy, pending, this));
+            }
+            return result;
+        }
+
+        private void bind(String setter, int index, Object value) {
+            if (setter.equals("setNull")) {
+                parameters.put(index, new SlowQuery.Null((Integer) value));
+            } else if (value instanceof InputStream || value instanceof Reader) {
+                parameters.put(index, "<stream>");
+                replayable = false;
+            } else {
+                parameters.put(index, value);
+            }
+        }
+
+        private void addBatch(Object[] args) {
+            batchSize++;
+            if (args != null && args.length == 1) {
+                batchSql = batchSql == null ? (String) args[0] : batchSql;
+            } else if (batchParameters == null) {
+                batchParameters = parameters();
+            }
+        }
+
+        private void clearBatch() {
+            batchSize = 0;
+            batchSql = null;
+            batchParameters = null;
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            finish(pending);
+            String name = method.getName();
+            boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+            Execution execution = batch
+                    ? new Execution(batchSql != null ? batchSql : sql,
+                            batchParameters != null ? batchParameters : List.of(), replayable, batchSize)
+                    : new Execution(args != null && args.length > 0 ? (String) args[0] : sql,
+                            args != null && args.length > 0 ? List.of() : parameters(), replayable, 0);
+            if (batch) {
+                clearBatch();
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(method, args);
+            } catch (Throwable e) {
+                execution.elapsedNanos += System.nanoTime() - start;
+                finish(execution);
+                throw e;
+            }
+            execution.elapsedNanos += System.nanoTime() - start;
+            if (result instanceof ResultSet resultSet) {
+                execution.rows = 0;
+                pending = execution;
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, (Statement) proxy, execution, this));
+            }
+            if (Boolean.TRUE.equals(result)) {
+                execution.rows = 0;
+                pending = execution;
+                return result;
+            }
+            execution.rows = Boolean.FALSE.equals(result) ? target.getUpdateCount() : rows(result);
+            finish(execution);
+            return result;
+        }
+
+        private List<Object> parameters() {
+            if (parameters.isEmpty()) {
+                return List.of();
+            }
+            List<Object> values = new ArrayList<>(Collections.nCopies(parameters.lastKey(), null));
+            parameters.forEach((index, value) -> {
+                if (index > 0) {
+                    values.set(index - 1, value);
+                }
+            });
+            return values;
+        }
+
+        void finish(Execution execution) {
+            if (execution == null || execution.finished) {
+                return;
+            }
+            execution.finished = true;
+            if (execution == pending) {
+                pending = null;
+            }
+            if (logger.isSlow(execution.elapsedNanos)) {
+                logger.log(execution.toSlowQuery());
+            }
+        }
+
+        private static long rows(Object result) {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    rows += Math.max(count, 0);
+                }
+            } else {
+                return -1;
+            }
+            return rows;
+        }
+    }
+
+    private static class ResultSetHandler extends DelegatingHandler {
+
+        private final Statement statement;
+        private final Execution execution;
+        private final StatementHandler statementHandler;
+
+        ResultSetHandler(ResultSet target, Statement statement, Execution execution, StatementHandler statementHandler) {
+            super(target);
+            this.statement = statement;
+            this.execution = execution;
+            this.statementHandler = statementHandler;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next" -> {
+                    long start = System.nanoTime();
+                    Object hasNext = invokeTarget(method, args);
+                    execution.elapsedNanos += System.nanoTime() - start;
+                    if (Boolean.TRUE.equals(hasNext)) {
+                        execution.rows++;
+                    } else {
+                        statementHandler.finish(execution);
+                    }
+                    return hasNext;
+                }
+                case "close" -> statementHandler.finish(execution);
+                case "getStatement" -> {
+                    return statement;
+                }
+                default -> {
+                }
+            }
+            return invokeTarget(method, args);
+        }
+    }
+
+    private static class Execution {
+
+        private final String sql;
+        private final String origin = QueryOrigin.current();
+        private final List<Object> parameters;
+        private final boolean replayable;
+        private final int batchSize;
+        private long elapsedNanos;
+        private long rows = -1;
+        private boolean finished;
+
+        Execution(String sql, List<Object> parameters, boolean replayable, int batchSize) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.replayable = replayable;
+            this.batchSize = batchSize;
+        }
+
+        SlowQuery toSlowQuery() {
+            return new SlowQuery(sql, origin, parameters, replayable, rows, batchSize, elapsedNanos);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
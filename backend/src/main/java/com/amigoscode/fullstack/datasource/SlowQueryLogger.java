@@ -0,0 +1,147 @@
+package com.amigoscode.fullstack.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+class SlowQueryLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLogger.class);
+
+    static final String REDACTED = "****";
+    static final int MAX_PARAMETER_LENGTH = 100;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LOCKING_CLAUSE = Pattern.compile("\\bfor\\s+(no\\s+key\\s+)?(update|share|key\\s+share)\\b");
+
+    private final long thresholdNanos;
+    private final Set<String> redactedColumns;
+    private final DataSource explainDataSource;
+    private final Executor explainExecutor;
+
+    SlowQueryLogger(Duration threshold, Set<String> redactedColumns, DataSource explainDataSource, Executor explainExecutor) {
+        this.thresholdNanos = threshold.toNanos();
+        this.redactedColumns = redactedColumns;
+        this.explainDataSource = explainDataSource;
+        this.explainExecutor = explainExecutor;
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    void log(SlowQuery query) {
+        log.warn(describe(query));
+        if (explainExecutor != null && explainable(query)) {
+            try {
+                explainExecutor.execute(() -> explain(query));
+            } catch (RejectedExecutionException e) {
+                log.debug("Skipping EXPLAIN for {}, the explain queue is full", normalize(query.sql()));
+            }
+        }
+    }
+
+    String describe(SlowQuery query) {
+        StringBuilder message = new StringBuilder("Slow query took ")
+                .append(Duration.ofNanos(query.elapsedNanos()).toMillis()).append(" ms")
+                .append(", rows=").append(query.rows());
+        if (query.batchSize() > 0) {
+            message.append(", batch=").append(query.batchSize());
+        }
+        message.append(", origin=").append(query.origin() == null ? "-" : query.origin())
+                .append(": ").append(normalize(query.sql()));
+        if (!query.parameters().isEmpty()) {
+            message.append(" parameters=").append(parameters(query));
+        }
+        return message.toString();
+    }
+
+    String parameters(SlowQuery query) {
+        List<String> names = SqlParameters.names(query.sql());
+        boolean mentionsRedacted = mentionsRedacted(query.sql());
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < query.parameters().size(); i++) {
+            String name = i < names.size() ? names.get(i) : null;
+            boolean redact = name == null ? mentionsRedacted : isRedacted(name);
+            joiner.add(redact ? REDACTED : format(query.parameters().get(i)));
+        }
+        return joiner.toString();
+    }
+
+    private void explain(SlowQuery query) {
+        try (Connection connection = explainDataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + query.sql())) {
+                List<Object> parameters = query.parameters();
+                for (int i = 0; i < parameters.size(); i++) {
+                    if (parameters.get(i) instanceof SlowQuery.Null value) {
+                        statement.setNull(i + 1, value.sqlType());
+                    } else {
+                        statement.setObject(i + 1, parameters.get(i));
+                    }
+                }
+                StringJoiner plan = new StringJoiner("\n");
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                log.info("EXPLAIN for slow query from {}: {}\n{}",
+                        query.origin() == null ? "-" : query.origin(), normalize(query.sql()), plan);
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            log.warn("Could not EXPLAIN slow query {}", normalize(query.sql()), e);
+        }
+    }
+
+    private boolean explainable(SlowQuery query) {
+        if (query.batchSize() > 0 || !query.replayable()) {
+            return false;
+        }
+        String sql = query.sql().strip().toLowerCase(Locale.ROOT);
+        return sql.startsWith("select") && !LOCKING_CLAUSE.matcher(sql).find();
+    }
+
+    private boolean mentionsRedacted(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        return redactedColumns.stream().anyMatch(lower::contains);
+    }
+
+    private boolean isRedacted(String column) {
+        return redactedColumns.stream().anyMatch(column::contains);
+    }
+
+    private static String format(Object value) {
+        if (value == null || value instanceof SlowQuery.Null) {
+            return "null";
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        String text = String.valueOf(value);
+        if (text.length() > MAX_PARAMETER_LENGTH) {
+            text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+        }
+        return "'" + text + "'";
+    }
+
+    private static String normalize(String sql) {
+        return WHITESPACE.matcher(sql).replaceAll(" ").strip();
+    }
+}
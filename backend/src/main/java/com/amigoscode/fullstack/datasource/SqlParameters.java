@@ -0,0 +1,138 @@
+package com.amigoscode.fullstack.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+final class SqlParameters {
+
+    private static final Set<String> COMPARISONS = Set.of("=", "<>", "!=", "<", ">", "<=", ">=", "like", "ilike");
+
+    private SqlParameters() {
+    }
+
+    static List<String> names(String sql) {
+        List<String> tokens = tokens(sql);
+        List<String> insertColumns = insertColumns(tokens);
+        List<String> names = new ArrayList<>();
+        boolean values = false;
+        int depth = 0;
+        int position = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            switch (token) {
+                case "(" -> {
+                    depth++;
+                    position = depth == 1 ? 0 : position;
+                }
+                case ")" -> depth--;
+                case "," -> position += depth == 1 ? 1 : 0;
+                case "?" -> names.add(values && depth > 0 && position < insertColumns.size()
+                        ? insertColumns.get(position)
+                        : comparedColumn(tokens, i));
+                default -> {
+                    if (depth == 0 && insertColumns != null) {
+                        values = token.equals("values");
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String comparedColumn(List<String> tokens, int placeholder) {
+        if (placeholder < 2 || !COMPARISONS.contains(tokens.get(placeholder - 1))) {
+            return null;
+        }
+        String column = tokens.get(placeholder - 2);
+        if (!isIdentifier(column)) {
+            return null;
+        }
+        return column.substring(column.lastIndexOf('.') + 1);
+    }
+
+    private static List<String> insertColumns(List<String> tokens) {
+        if (tokens.size() < 4 || !tokens.get(0).equals("insert") || !tokens.get(1).equals("into")) {
+            return null;
+        }
+        int i = 3;
+        if (!tokens.get(i).equals("(")) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        for (i++; i < tokens.size() && !tokens.get(i).equals(")"); i++) {
+            String token = tokens.get(i);
+            if (!token.equals(",")) {
+                columns.add(token.substring(token.lastIndexOf('.') + 1));
+            }
+        }
+        if (i + 1 >= tokens.size() || !tokens.get(i + 1).equals("values")) {
+            return null;
+        }
+        return columns;
+    }
+
+    private static List<String> tokens(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                while (i < length && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                tokens.add("'");
+            } else if (c == '"' || Character.isLetterOrDigit(c) || c == '_') {
+                int start = i;
+                while (i < length) {
+                    char next = sql.charAt(i);
+                    if (next == '"') {
+                        i = skipQuoted(sql, i, '"');
+                    } else if (Character.isLetterOrDigit(next) || next == '_' || next == '$' || next == '.') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(sql.substring(start, i).replace("\"", "").toLowerCase(Locale.ROOT));
+            } else if ((c == '<' || c == '>' || c == '!') && i + 1 < length
+                    && (sql.charAt(i + 1) == '=' || c == '<' && sql.charAt(i + 1) == '>')) {
+                tokens.add(sql.substring(i, i + 2));
+                i += 2;
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isIdentifier(String token) {
+        char first = token.charAt(0);
+        return Character.isLetter(first) || first == '_';
+    }
+}
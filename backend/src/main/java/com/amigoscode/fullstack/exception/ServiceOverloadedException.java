@@ -0,0 +1,11 @@
+package com.amigoscode.fullstack.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
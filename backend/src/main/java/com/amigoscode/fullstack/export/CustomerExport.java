@@ -0,0 +1,100 @@
+package com.amigoscode.fullstack.export;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CustomerExport {
+
+    private final String id;
+    private final ExportFormat format;
+    private final boolean gzip;
+    private final Instant createdAt;
+    private final AtomicInteger rangesCompleted = new AtomicInteger();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile ExportState state = ExportState.QUEUED;
+    private volatile int rangesTotal;
+    private volatile Path file;
+    private volatile Long sizeBytes;
+    private volatile Instant completedAt;
+    private volatile String error;
+
+    CustomerExport(String id, ExportFormat format, boolean gzip, Instant createdAt) {
+        this.id = id;
+        this.format = format;
+        this.gzip = gzip;
+        this.createdAt = createdAt;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ExportFormat format() {
+        return format;
+    }
+
+    boolean gzip() {
+        return gzip;
+    }
+
+    ExportState state() {
+        return state;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    Instant completedAt() {
+        return completedAt;
+    }
+
+    String fileName() {
+        return "customers-%s.%s%s".formatted(id, format.extension(), gzip ? ".gz" : "");
+    }
+
+    String mediaType() {
+        return gzip ? "application/gzip" : format.mediaType();
+    }
+
+    void running(int rangesTotal) {
+        this.rangesTotal = rangesTotal;
+        this.state = ExportState.RUNNING;
+    }
+
+    void rangeCompleted(long rows) {
+        rowsWritten.addAndGet(rows);
+        rangesCompleted.incrementAndGet();
+    }
+
+    void completed(Path file, long sizeBytes) {
+        this.file = file;
+        this.sizeBytes = sizeBytes;
+        this.completedAt = Instant.now();
+        this.state = ExportState.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.completedAt = Instant.now();
+        this.state = ExportState.FAILED;
+    }
+
+    CustomerExportStatus status() {
+        return new CustomerExportStatus(
+                id,
+                format,
+                gzip,
+                state,
+                rangesCompleted.get(),
+                rangesTotal,
+                rowsWritten.get(),
+                sizeBytes,
+                createdAt,
+                completedAt,
+                error);
+    }
+}
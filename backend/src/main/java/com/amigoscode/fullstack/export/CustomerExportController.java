@@ -0,0 +1,74 @@
+package com.amigoscode.fullstack.export;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+@RequestMapping("/api/customers/exports")
+public class CustomerExportController {
+
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CustomerExportService customerExportService;
+
+    public CustomerExportController(CustomerExportService customerExportService) {
+        this.customerExportService = customerExportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<CustomerExportStatus> startExport(@RequestBody CustomerExportRequest request){
+        CustomerExportStatus status = customerExportService.startExport(request);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(status.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    @GetMapping("/{id}")
+    public CustomerExportStatus getExport(@PathVariable("id") String id){
+        return customerExportService.getExport(id);
+    }
+
+    @GetMapping("/{id}/file")
+    public void downloadExport(
+            @PathVariable("id") String id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CustomerExportFile file = customerExportService.getExportFile(id);
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentType(file.mediaType());
+            response.setContentLengthLong(size);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(file.name()).build().toString());
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.amigoscode.fullstack.export;
+
+import java.nio.file.Path;
+
+public record CustomerExportFile(
+        Path path,
+        String name,
+        String mediaType
+) {}
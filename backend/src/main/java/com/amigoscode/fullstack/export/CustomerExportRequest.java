@@ -0,0 +1,6 @@
+package com.amigoscode.fullstack.export;
+
+public record CustomerExportRequest(
+        ExportFormat format,
+        Boolean gzip
+) {}
@@ -0,0 +1,268 @@
+package com.amigoscode.fullstack.export;
+
+import com.amigoscode.fullstack.exception.ResourceNotFound;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class CustomerExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerExportService.class);
+
+    static final String CSV_HEADER = "id,name,email,gender,age\n";
+    private static final String COLUMNS = "id, customer_name, customer_email, gender, customer_age";
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path directory;
+    private final int parallelism;
+    private final int fetchSize;
+    private final Duration retention;
+    private final Map<String, CustomerExport> exports = new ConcurrentHashMap<>();
+    private final ExecutorService jobExecutor;
+    private final ExecutorService scanExecutor;
+
+    public CustomerExportService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${customer.export.directory:${java.io.tmpdir}/customer-exports}") Path directory,
+            @Value("${customer.export.parallelism:4}") int parallelism,
+            @Value("${customer.export.fetch-size:1000}") int fetchSize,
+            @Value("${customer.export.retention:PT24H}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = directory;
+        this.parallelism = parallelism;
+        this.fetchSize = fetchSize;
+        this.retention = retention;
+        this.jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("customer-export-"));
+        this.scanExecutor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("customer-export-scan-"));
+    }
+
+    public CustomerExportStatus startExport(CustomerExportRequest request) {
+        CustomerExport export = new CustomerExport(
+                UUID.randomUUID().toString(),
+                request.format() == null ? ExportFormat.NDJSON : request.format(),
+                Boolean.TRUE.equals(request.gzip()),
+                Instant.now());
+        exports.put(export.id(), export);
+        jobExecutor.execute(() -> run(export));
+        return export.status();
+    }
+
+    public CustomerExportStatus getExport(String id) {
+        return findExport(id).status();
+    }
+
+    public CustomerExportFile getExportFile(String id) {
+        CustomerExport export = findExport(id);
+        if (export.state() != ExportState.COMPLETED) {
+            throw new ResourceNotFound("export with id [%s] is %s, no file available yet"
+                    .formatted(id, export.state().name().toLowerCase()));
+        }
+        return new CustomerExportFile(export.file(), export.fileName(), export.mediaType());
+    }
+
+    private CustomerExport findExport(String id) {
+        CustomerExport export = exports.get(id);
+        if (export == null) {
+            throw new ResourceNotFound("export with id [%s] not found".formatted(id));
+        }
+        return export;
+    }
+
+    void run(CustomerExport export) {
+        Path parts = directory.resolve(export.id());
+        try {
+            Files.createDirectories(parts);
+            List<IdRange> ranges = ranges();
+            export.running(ranges.size());
+
+            List<CompletableFuture<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < ranges.size(); i++) {
+                IdRange range = ranges.get(i);
+                Path part = parts.resolve("part-%05d".formatted(i));
+                futures.add(CompletableFuture.supplyAsync(() -> writePart(export, range, part), scanExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            Path file = directory.resolve(export.fileName());
+            try (FileChannel target = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (export.format() == ExportFormat.CSV) {
+                    Path header = parts.resolve("header");
+                    try (OutputStream out = openPart(header, export.gzip())) {
+                        out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+                    }
+                    append(header, target);
+                }
+                for (CompletableFuture<Path> future : futures) {
+                    append(future.join(), target);
+                }
+            }
+            export.completed(file, Files.size(file));
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.warn("customer export {} failed", export.id(), cause);
+            export.failed(cause.getMessage());
+        } finally {
+            FileSystemUtils.deleteRecursively(parts.toFile());
+        }
+    }
+
+    private List<IdRange> ranges() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT min(id) AS min_id, max(id) AS max_id FROM customers");
+        if (bounds.get("min_id") == null) {
+            return List.of();
+        }
+        return IdRange.split(
+                ((Number) bounds.get("min_id")).longValue(),
+                ((Number) bounds.get("max_id")).longValue(),
+                parallelism * RANGES_PER_WORKER);
+    }
+
+    private Path writePart(CustomerExport export, IdRange range, Path part) {
+        try (OutputStream out = openPart(part, export.gzip())) {
+            long rows = export.format() == ExportFormat.CSV
+                    ? copyCsv(range, out)
+                    : writeNdjson(range, out);
+            export.rangeCompleted(rows);
+            return part;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long copyCsv(IdRange range, OutputStream out) {
+        var sql = """
+                COPY (SELECT %s FROM customers WHERE id >= %d AND id < %d ORDER BY id) TO STDOUT WITH (FORMAT csv)
+                """.formatted(COLUMNS, range.from(), range.to());
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    private long writeNdjson(IdRange range, OutputStream out) throws IOException {
+        var sql = """
+                SELECT %s FROM customers WHERE id >= ? AND id < ? ORDER BY id
+                """.formatted(COLUMNS);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Long rows = readOnlyTransaction.execute(status -> {
+            long[] count = {0};
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, range.from());
+                ps.setLong(2, range.to());
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getInt("id"));
+                    generator.writeStringField("name", rs.getString("customer_name"));
+                    generator.writeStringField("email", rs.getString("customer_email"));
+                    generator.writeStringField("gender", rs.getString("gender"));
+                    generator.writeNumberField("age", rs.getInt("customer_age"));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+            return count[0];
+        });
+        generator.flush();
+        return rows == null ? 0 : rows;
+    }
+
+    private static OutputStream openPart(Path part, boolean gzip) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024);
+        return gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+    }
+
+    private static void append(Path part, FileChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(part, StandardOpenOption.READ)) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                position += source.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.export.cleanup-interval:PT1H}")
+    public void removeExpiredExports() {
+        Instant expiry = Instant.now().minus(retention);
+        exports.values().removeIf(export -> {
+            if (export.completedAt() == null || export.completedAt().isAfter(expiry)) {
+                return false;
+            }
+            try {
+                if (export.file() != null) {
+                    Files.deleteIfExists(export.file());
+                }
+            } catch (IOException e) {
+                log.warn("could not delete customer export {}", export.file(), e);
+            }
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        scanExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.amigoscode.fullstack.export;
+
+import java.time.Instant;
+
+public record CustomerExportStatus(
+        String id,
+        ExportFormat format,
+        boolean gzip,
+        ExportState state,
+        int rangesCompleted,
+        int rangesTotal,
+        long rowsWritten,
+        Long sizeBytes,
+        Instant createdAt,
+        Instant completedAt,
+        String error
+) {}
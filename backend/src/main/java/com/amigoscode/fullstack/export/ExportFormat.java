@@ -0,0 +1,22 @@
+package com.amigoscode.fullstack.export;
+
+public enum ExportFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String mediaType;
+
+    ExportFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,8 @@
+package com.amigoscode.fullstack.export;
+
+public enum ExportState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,19 @@
+package com.amigoscode.fullstack.export;
+
+import java.util.ArrayList;
+import java.util.List;
+
+record IdRange(long from, long to) {
+
+    static List<IdRange> split(long min, long max, int count) {
+        List<IdRange> ranges = new ArrayList<>();
+        if (max < min) {
+            return ranges;
+        }
+        long width = Math.max(1, (max - min + count) / count);
+        for (long from = min; from <= max; from += width) {
+            ranges.add(new IdRange(from, Math.min(from + width, max + 1)));
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,101 @@
+package com.amigoscode.fullstack.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+class CsvRecordReader {
+
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private int pushback = -1;
+    private long line = 1;
+    private long recordLine;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    long line() {
+        return recordLine;
+    }
+
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        while (c != -1) {
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new IllegalStateException("csv record at line %d exceeds %d characters"
+                        .formatted(recordLine, MAX_RECORD_LENGTH));
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                    value.append('"');
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    value.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c == '\r') {
+                line++;
+                int next = read();
+                if (next != '\n') {
+                    pushback = next;
+                }
+                break;
+            } else {
+                value.append((char) c);
+            }
+            c = read();
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
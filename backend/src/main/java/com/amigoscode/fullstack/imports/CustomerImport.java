@@ -0,0 +1,128 @@
+package com.amigoscode.fullstack.imports;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CustomerImport {
+
+    private final String id;
+    private final ImportFormat format;
+    private final int maxErrors;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsHashed = new AtomicLong();
+    private final AtomicLong rowsStaged = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong duplicatesInFile = new AtomicLong();
+    private final AtomicLong emailsTaken = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final List<ImportError> errors = new ArrayList<>();
+
+    private volatile ImportState state = ImportState.QUEUED;
+    private volatile Instant completedAt;
+    private volatile String failure;
+
+    CustomerImport(String id, ImportFormat format, int maxErrors) {
+        this.id = id;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ImportFormat format() {
+        return format;
+    }
+
+    Instant completedAt() {
+        return completedAt;
+    }
+
+    void running() {
+        state = ImportState.RUNNING;
+    }
+
+    void read() {
+        rowsRead.incrementAndGet();
+    }
+
+    void hashed(int rows) {
+        rowsHashed.addAndGet(rows);
+    }
+
+    void staged(int rows) {
+        rowsStaged.addAndGet(rows);
+    }
+
+    void inserted(int rows) {
+        inserted.addAndGet(rows);
+    }
+
+    void invalid(ImportError error) {
+        invalid.incrementAndGet();
+        error(error);
+    }
+
+    void duplicateInFile(long line, String email) {
+        duplicatesInFile.incrementAndGet();
+        error(new ImportError(line, email, "duplicate email in file"));
+    }
+
+    void emailTaken(long line, String email) {
+        emailsTaken.incrementAndGet();
+        error(new ImportError(line, email, "email is already taken"));
+    }
+
+    void completed() {
+        completedAt = Instant.now();
+        state = ImportState.COMPLETED;
+    }
+
+    void failed(String failure) {
+        this.failure = failure;
+        completedAt = Instant.now();
+        state = ImportState.FAILED;
+    }
+
+    ImportState state() {
+        return state;
+    }
+
+    private void error(ImportError error) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+    }
+
+    CustomerImportStatus status() {
+        Instant end = completedAt == null ? Instant.now() : completedAt;
+        double seconds = Math.max(1, Duration.between(startedAt, end).toMillis()) / 1000.0;
+        List<ImportError> errorsSnapshot;
+        synchronized (errors) {
+            errorsSnapshot = List.copyOf(errors);
+        }
+        return new CustomerImportStatus(
+                id,
+                format,
+                state,
+                rowsRead.get(),
+                rowsHashed.get(),
+                rowsStaged.get(),
+                inserted.get(),
+                duplicatesInFile.get(),
+                emailsTaken.get(),
+                invalid.get(),
+                rowsRead.get() / seconds,
+                errorsSnapshot,
+                startedAt,
+                completedAt,
+                failure);
+    }
+}
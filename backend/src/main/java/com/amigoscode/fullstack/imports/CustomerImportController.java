@@ -0,0 +1,57 @@
+package com.amigoscode.fullstack.imports;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/customers/imports")
+public class CustomerImportController {
+
+    private final CustomerImportService customerImportService;
+
+    public CustomerImportController(CustomerImportService customerImportService) {
+        this.customerImportService = customerImportService;
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CustomerImportStatus> importCustomers(
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) ImportFormat format) throws IOException {
+        ImportFormat detected = format != null
+                ? format
+                : ImportFormat.detect(file.getContentType(), file.getOriginalFilename());
+        return accepted(customerImportService.startImport(detected, file::transferTo));
+    }
+
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<CustomerImportStatus> importCustomers(HttpServletRequest request) throws IOException {
+        ImportFormat format = ImportFormat.detect(request.getContentType(), null);
+        return accepted(customerImportService.startImport(format, request.getInputStream()));
+    }
+
+    @GetMapping
+    public List<CustomerImportStatus> getImports(){
+        return customerImportService.getImports();
+    }
+
+    @GetMapping("/{id}")
+    public CustomerImportStatus getImport(@PathVariable("id") String id){
+        return customerImportService.getImport(id);
+    }
+
+    private static ResponseEntity<CustomerImportStatus> accepted(CustomerImportStatus status) {
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(status.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+}
@@ -0,0 +1,39 @@
+package com.amigoscode.fullstack.imports;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+@Component(DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+public class CustomerImportMultipartResolver extends StandardServletMultipartResolver {
+
+    static final String IMPORTS_PATH = "/api/customers/imports";
+
+    private final DataSize maxRequestSize;
+
+    public CustomerImportMultipartResolver(
+            @Value("${customer.multipart.max-request-size:10MB}") DataSize maxRequestSize) {
+        this.maxRequestSize = maxRequestSize;
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        if (!isImport(request)) {
+            long length = request.getContentLengthLong();
+            if (length < 0 || length > maxRequestSize.toBytes()) {
+                throw new MaxUploadSizeExceededException(maxRequestSize.toBytes());
+            }
+        }
+        return super.resolveMultipart(request);
+    }
+
+    private static boolean isImport(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length()).equals(IMPORTS_PATH);
+    }
+}
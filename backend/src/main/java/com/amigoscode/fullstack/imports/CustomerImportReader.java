@@ -0,0 +1,162 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.customer.CustomerRegistrationRequest;
+import com.amigoscode.fullstack.customer.Gender;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CustomerImportReader {
+
+    static final List<String> CSV_COLUMNS = List.of("name", "email", "password", "age", "gender");
+
+    interface RowHandler {
+        void row(ImportRow row);
+        void invalid(ImportError error);
+    }
+
+    private final ObjectMapper objectMapper;
+
+    CustomerImportReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    void read(InputStream body, ImportFormat format, RowHandler handler) throws IOException {
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        if (format == ImportFormat.CSV) {
+            readCsv(new CsvRecordReader(reader), handler);
+        } else {
+            readNdjson(new BufferedReader(reader, 64 * 1024), handler);
+        }
+    }
+
+    private static void readCsv(CsvRecordReader records, RowHandler handler) throws IOException {
+        Map<String, Integer> header = readHeader(records);
+        while (true) {
+            List<String> values;
+            try {
+                values = records.next();
+            } catch (IllegalArgumentException e) {
+                handler.invalid(new ImportError(records.line(), null, e.getMessage()));
+                continue;
+            }
+            if (values == null) {
+                return;
+            }
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                handler.row(validate(records.line(), fromCsv(values, header)));
+            } catch (IllegalArgumentException e) {
+                handler.invalid(new ImportError(records.line(), null, e.getMessage()));
+            } catch (InvalidRowException e) {
+                handler.invalid(new ImportError(records.line(), e.email, e.getMessage()));
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, RowHandler handler) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                handler.row(validate(line, objectMapper.readValue(text, CustomerRegistrationRequest.class)));
+            } catch (JsonProcessingException e) {
+                handler.invalid(new ImportError(line, null, "malformed json: " + e.getOriginalMessage()));
+            } catch (IllegalArgumentException e) {
+                handler.invalid(new ImportError(line, null, e.getMessage()));
+            } catch (InvalidRowException e) {
+                handler.invalid(new ImportError(line, e.email, e.getMessage()));
+            }
+        }
+    }
+
+    private static Map<String, Integer> readHeader(CsvRecordReader records) throws IOException {
+        List<String> names = records.next();
+        if (names == null) {
+            return Map.of();
+        }
+        if (names.get(0).startsWith("\uFEFF")) {
+            names.set(0, names.get(0).substring(1));
+        }
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            header.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!header.containsKey(column)) {
+                throw new IllegalArgumentException("csv header must contain columns " + CSV_COLUMNS);
+            }
+        }
+        return header;
+    }
+
+    private static CustomerRegistrationRequest fromCsv(List<String> values, Map<String, Integer> header) {
+        if (values.size() < header.size()) {
+            throw new IllegalArgumentException("expected %d columns but found %d".formatted(header.size(), values.size()));
+        }
+        String age = values.get(header.get("age")).trim();
+        String gender = values.get(header.get("gender")).trim();
+        try {
+            return new CustomerRegistrationRequest(
+                    values.get(header.get("name")),
+                    values.get(header.get("email")),
+                    values.get(header.get("password")),
+                    age.isEmpty() ? null : Integer.valueOf(age),
+                    gender.isEmpty() ? null : gender(gender));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("age [%s] is not a number".formatted(age));
+        }
+    }
+
+    private static Gender gender(String gender) {
+        try {
+            return Gender.valueOf(gender.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("gender [%s] is not one of MALE, FEMALE".formatted(gender));
+        }
+    }
+
+    private static ImportRow validate(long line, CustomerRegistrationRequest request) {
+        String email = request.email();
+        if (email == null || email.isBlank()) {
+            throw new InvalidRowException(null, "email is required");
+        }
+        if (request.name() == null || request.name().isBlank()) {
+            throw new InvalidRowException(email, "name is required");
+        }
+        if (request.password() == null || request.password().isEmpty()) {
+            throw new InvalidRowException(email, "password is required");
+        }
+        if (request.age() == null || request.age() < 1) {
+            throw new InvalidRowException(email, "age must be a positive number");
+        }
+        if (request.gender() == null) {
+            throw new InvalidRowException(email, "gender is required");
+        }
+        return new ImportRow(line, request.name(), email, request.password(), request.age(), request.gender());
+    }
+
+    private static class InvalidRowException extends RuntimeException {
+        private final String email;
+
+        InvalidRowException(String email, String message) {
+            super(message);
+            this.email = email;
+        }
+    }
+}
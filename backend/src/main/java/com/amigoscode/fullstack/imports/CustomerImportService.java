@@ -0,0 +1,302 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.customer.CustomerIdAllocator;
+import com.amigoscode.fullstack.customer.CustomerService;
+import com.amigoscode.fullstack.exception.PayloadTooLargeException;
+import com.amigoscode.fullstack.exception.ResourceNotFound;
+import com.amigoscode.fullstack.securiry.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Service
+public class CustomerImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CustomerImportService.class);
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE customer_import_staging(
+                id bigint,
+                line bigint not null,
+                customer_name text not null,
+                customer_email text not null,
+                password text not null,
+                customer_age int not null,
+                gender text not null
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_STAGING = """
+            COPY customer_import_staging(id, line, customer_name, customer_email, password, customer_age, gender)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+    private static final String MERGE_STAGING = """
+            WITH inserted AS (
+                INSERT INTO customers(id, customer_name, customer_email, password, customer_age, gender)
+                SELECT COALESCE(id, nextval('customers_id_seq')), customer_name, customer_email, password, customer_age, gender
+                FROM customer_import_staging
+                ORDER BY line
+                ON CONFLICT (customer_email) DO NOTHING
+                RETURNING customer_email
+            )
+            SELECT s.line, s.customer_email, i.customer_email IS NOT NULL AS inserted
+            FROM customer_import_staging s
+            LEFT JOIN inserted i ON i.customer_email = s.customer_email
+            ORDER BY s.line
+            """;
+
+    public interface Upload {
+        void transferTo(Path file) throws IOException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final CustomerIdAllocator customerIdAllocator;
+    private final CustomerService customerService;
+    private final CustomerImportReader reader;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService hashingExecutor;
+    private final Path directory;
+    private final DataSize maxUploadSize;
+    private final int batchSize;
+    private final int commitSize;
+    private final int maxInFlight;
+    private final int maxErrors;
+    private final Duration retention;
+    private final Map<String, CustomerImport> imports = new ConcurrentHashMap<>();
+
+    public CustomerImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder,
+            CustomerIdAllocator customerIdAllocator,
+            CustomerService customerService,
+            ObjectMapper objectMapper,
+            @Value("${customer.import.directory:${java.io.tmpdir}/customer-imports}") Path directory,
+            @Value("${customer.import.max-upload-size:2GB}") DataSize maxUploadSize,
+            @Value("${customer.import.hashing-parallelism:0}") int hashingParallelism,
+            @Value("${customer.import.batch-size:500}") int batchSize,
+            @Value("${customer.import.commit-size:10000}") int commitSize,
+            @Value("${customer.import.max-errors:100}") int maxErrors,
+            @Value("${customer.import.retention:PT24H}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded
+                ? bounded.delegate()
+                : passwordEncoder;
+        this.customerIdAllocator = customerIdAllocator;
+        this.customerService = customerService;
+        this.reader = new CustomerImportReader(objectMapper);
+        this.directory = directory;
+        this.maxUploadSize = maxUploadSize;
+        this.jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("customer-import-"));
+        int hashingThreads = hashingParallelism > 0
+                ? hashingParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingExecutor = Executors.newFixedThreadPool(
+                hashingThreads, new CustomizableThreadFactory("customer-import-hashing-"));
+        this.batchSize = batchSize;
+        this.commitSize = commitSize;
+        this.maxInFlight = hashingThreads * 2;
+        this.maxErrors = maxErrors;
+        this.retention = retention;
+    }
+
+    public CustomerImportStatus startImport(ImportFormat format, Upload upload) throws IOException {
+        CustomerImport customerImport = new CustomerImport(UUID.randomUUID().toString(), format, maxErrors);
+        Files.createDirectories(directory);
+        Path file = directory.resolve(customerImport.id());
+        try {
+            upload.transferTo(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        imports.put(customerImport.id(), customerImport);
+        jobExecutor.execute(() -> run(customerImport, file));
+        return customerImport.status();
+    }
+
+    public CustomerImportStatus startImport(ImportFormat format, InputStream body) throws IOException {
+        return startImport(format, file -> spool(body, file));
+    }
+
+    private void spool(InputStream body, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long size = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > maxUploadSize.toBytes()) {
+                    throw new PayloadTooLargeException("import exceeds %s".formatted(maxUploadSize));
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    void run(CustomerImport customerImport, Path file) {
+        customerImport.running();
+        try {
+            importFile(customerImport, file);
+            customerImport.completed();
+        } catch (IOException | RuntimeException e) {
+            log.warn("customer import {} failed", customerImport.id(), e);
+            customerImport.failed(e.getMessage());
+        }
+        CustomerImportStatus status = customerImport.status();
+        log.info("customer import {} {}: read {}, inserted {}, {} rows/s",
+                status.id(), status.state(), status.rowsRead(), status.inserted(), Math.round(status.rowsPerSecond()));
+    }
+
+    private void importFile(CustomerImport customerImport, Path file) throws IOException {
+        try (InputStream body = Files.newInputStream(file)) {
+            StagingBatch batch = new StagingBatch(customerImport);
+            ImportPipeline pipeline = new ImportPipeline(
+                    customerImport,
+                    passwordEncoder,
+                    customerIdAllocator,
+                    hashingExecutor,
+                    batch,
+                    batchSize,
+                    maxInFlight);
+            try {
+                reader.read(body, customerImport.format(), pipeline);
+                pipeline.finish();
+                batch.commit();
+            } finally {
+                pipeline.cancel();
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("could not delete customer import upload {}", file, e);
+            }
+        }
+    }
+
+    private record TakenEmail(long line, String email) {}
+
+    private class StagingBatch implements ImportPipeline.StagingWriter {
+
+        private final CustomerImport customerImport;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private int rows;
+
+        StagingBatch(CustomerImport customerImport) {
+            this.customerImport = customerImport;
+        }
+
+        @Override
+        public void write(int rows, byte[] csv) {
+            chunks.add(csv);
+            this.rows += rows;
+            if (this.rows >= commitSize) {
+                commit();
+            }
+        }
+
+        void commit() {
+            if (chunks.isEmpty()) {
+                return;
+            }
+            List<String> inserted = new ArrayList<>();
+            List<TakenEmail> taken = new ArrayList<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(CREATE_STAGING);
+                jdbcTemplate.execute((ConnectionCallback<Long>) this::copy);
+                jdbcTemplate.query(MERGE_STAGING, (RowCallbackHandler) rs -> {
+                    String email = rs.getString("customer_email");
+                    if (rs.getBoolean("inserted")) {
+                        inserted.add(email);
+                    } else {
+                        taken.add(new TakenEmail(rs.getLong("line"), email));
+                    }
+                });
+            });
+            chunks.clear();
+            rows = 0;
+            customerImport.inserted(inserted.size());
+            taken.forEach(email -> customerImport.emailTaken(email.line(), email.email()));
+            if (!inserted.isEmpty()) {
+                customerService.customersImported(inserted);
+            }
+        }
+
+        private Long copy(Connection connection) throws SQLException {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+            try {
+                for (byte[] chunk : chunks) {
+                    copyIn.writeToCopy(chunk, 0, chunk.length);
+                }
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+    }
+
+    public List<CustomerImportStatus> getImports() {
+        return imports.values().stream()
+                .map(CustomerImport::status)
+                .sorted(Comparator.comparing(CustomerImportStatus::startedAt).reversed())
+                .toList();
+    }
+
+    public CustomerImportStatus getImport(String id) {
+        CustomerImport customerImport = imports.get(id);
+        if (customerImport == null) {
+            throw new ResourceNotFound("import with id [%s] not found".formatted(id));
+        }
+        return customerImport.status();
+    }
+
+    @Scheduled(fixedDelayString = "${customer.import.cleanup-interval:PT1H}")
+    public void removeExpiredImports() {
+        Instant expiry = Instant.now().minus(retention);
+        imports.values().removeIf(customerImport ->
+                customerImport.completedAt() != null && customerImport.completedAt().isBefore(expiry));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+        hashingExecutor.shutdownNow();
+    }
+}
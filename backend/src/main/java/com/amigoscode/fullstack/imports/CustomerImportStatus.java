@@ -0,0 +1,22 @@
+package com.amigoscode.fullstack.imports;
+
+import java.time.Instant;
+import java.util.List;
+
+public record CustomerImportStatus(
+        String id,
+        ImportFormat format,
+        ImportState state,
+        long rowsRead,
+        long rowsHashed,
+        long rowsStaged,
+        long inserted,
+        long duplicatesInFile,
+        long emailsTaken,
+        long invalid,
+        double rowsPerSecond,
+        List<ImportError> errors,
+        Instant startedAt,
+        Instant completedAt,
+        String failure
+) {}
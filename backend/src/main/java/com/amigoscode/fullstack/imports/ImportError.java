@@ -0,0 +1,7 @@
+package com.amigoscode.fullstack.imports;
+
+public record ImportError(
+        long line,
+        String email,
+        String reason
+) {}
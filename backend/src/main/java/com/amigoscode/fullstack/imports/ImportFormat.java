@@ -0,0 +1,28 @@
+package com.amigoscode.fullstack.imports;
+
+public enum ImportFormat {
+    CSV("text/csv", ".csv"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String mediaType;
+    private final String extension;
+
+    ImportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static ImportFormat detect(String contentType, String fileName) {
+        for (ImportFormat format : values()) {
+            if (contentType != null && contentType.startsWith(format.mediaType)) {
+                return format;
+            }
+        }
+        for (ImportFormat format : values()) {
+            if (fileName != null && fileName.toLowerCase().endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return CSV;
+    }
+}
@@ -0,0 +1,142 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.customer.CustomerIdAllocator;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+class ImportPipeline implements CustomerImportReader.RowHandler {
+
+    interface StagingWriter {
+        void write(int rows, byte[] csv);
+    }
+
+    private record StagedChunk(int rows, byte[] csv) {}
+
+    private final CustomerImport customerImport;
+    private final PasswordEncoder passwordEncoder;
+    private final CustomerIdAllocator customerIdAllocator;
+    private final Executor hashingExecutor;
+    private final StagingWriter stagingWriter;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final Set<String> emails = new HashSet<>();
+    private final Deque<CompletableFuture<StagedChunk>> inFlight = new ArrayDeque<>();
+    private List<ImportRow> chunk;
+
+    ImportPipeline(CustomerImport customerImport,
+                   PasswordEncoder passwordEncoder,
+                   CustomerIdAllocator customerIdAllocator,
+                   Executor hashingExecutor,
+                   StagingWriter stagingWriter,
+                   int batchSize,
+                   int maxInFlight) {
+        this.customerImport = customerImport;
+        this.passwordEncoder = passwordEncoder;
+        this.customerIdAllocator = customerIdAllocator;
+        this.hashingExecutor = hashingExecutor;
+        this.stagingWriter = stagingWriter;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.chunk = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void row(ImportRow row) {
+        customerImport.read();
+        if (!emails.add(row.email())) {
+            customerImport.duplicateInFile(row.line(), row.email());
+            return;
+        }
+        chunk.add(row);
+        if (chunk.size() == batchSize) {
+            submit();
+        }
+    }
+
+    @Override
+    public void invalid(ImportError error) {
+        customerImport.read();
+        customerImport.invalid(error);
+    }
+
+    void finish() {
+        if (!chunk.isEmpty()) {
+            submit();
+        }
+        while (!inFlight.isEmpty()) {
+            stageNext();
+        }
+    }
+
+    void cancel() {
+        inFlight.forEach(future -> future.cancel(true));
+        inFlight.clear();
+    }
+
+    Set<String> emails() {
+        return emails;
+    }
+
+    private void submit() {
+        List<ImportRow> rows = chunk;
+        chunk = new ArrayList<>(batchSize);
+        while (inFlight.size() >= maxInFlight) {
+            stageNext();
+        }
+        inFlight.add(CompletableFuture.supplyAsync(() -> hash(rows), hashingExecutor));
+    }
+
+    private void stageNext() {
+        StagedChunk staged;
+        try {
+            staged = inFlight.poll().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        stagingWriter.write(staged.rows(), staged.csv());
+        customerImport.staged(staged.rows());
+    }
+
+    private StagedChunk hash(List<ImportRow> rows) {
+        List<Integer> ids = customerIdAllocator.nextIds(rows.size());
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            Integer id = ids.get(i);
+            csv.append(id == null ? "" : id).append(',')
+                    .append(row.line()).append(',');
+            quote(csv, row.name()).append(',');
+            quote(csv, row.email()).append(',');
+            quote(csv, passwordEncoder.encode(row.password())).append(',')
+                    .append(row.age()).append(',')
+                    .append(row.gender().name()).append('\n');
+        }
+        customerImport.hashed(rows.size());
+        return new StagedChunk(rows.size(), csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static StringBuilder quote(StringBuilder csv, String value) {
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+}
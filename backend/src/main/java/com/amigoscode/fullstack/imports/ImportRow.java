@@ -0,0 +1,12 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.customer.Gender;
+
+record ImportRow(
+        long line,
+        String name,
+        String email,
+        String password,
+        int age,
+        Gender gender
+) {}
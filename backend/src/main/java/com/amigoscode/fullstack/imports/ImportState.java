@@ -0,0 +1,8 @@
+package com.amigoscode.fullstack.imports;
+
+public enum ImportState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
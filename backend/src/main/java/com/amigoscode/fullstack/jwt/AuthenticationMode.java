@@ -0,0 +1,6 @@
+package com.amigoscode.fullstack.jwt;
+
+public enum AuthenticationMode {
+    DATABASE,
+    CLAIMS
+}
@@ -0,0 +1,15 @@
+package com.amigoscode.fullstack.jwt;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+public record CustomerPrincipal(
+        Integer id,
+        String username,
+        int tokenVersion
+) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
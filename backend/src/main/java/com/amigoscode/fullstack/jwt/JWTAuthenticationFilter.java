@@ -1,12 +1,19 @@
 package com.amigoscode.fullstack.jwt;
 
 import com.amigoscode.fullstack.customer.CustomerUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -15,16 +22,27 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final AuthenticationMode authenticationMode;
+    private final MeterRegistry meterRegistry;
 
-    public JWTAuthenticationFilter(JWTUtil jwtUtil, CustomerUserDetailsService userDetailsService) {
+    public JWTAuthenticationFilter(JWTUtil jwtUtil,
+                                   CustomerUserDetailsService userDetailsService,
+                                   TokenVersionRegistry tokenVersionRegistry,
+                                   @Value("${jwt.authentication-mode:database}") AuthenticationMode authenticationMode,
+                                   MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.authenticationMode = authenticationMode;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -33,30 +51,72 @@ public class JWTAuthenticationFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        String authHeader = request.getHeader("Authorization");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = authenticate(request);
+        sample.stop(Timer.builder("jwt.authentication")
+                .description("Time spent authenticating the bearer token of a request")
+                .tag("mode", authenticationMode.name().toLowerCase())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        filterChain.doFilter(request, response);
+    }
 
+    private String authenticate(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
         if(authHeader==null || !authHeader.startsWith("Bearer ")){
-            filterChain.doFilter(request, response);
-            return;
+            return "none";
         }
 
         String jwt = authHeader.substring(7);
-        String subject = jwtUtil.getSubject(jwt);
+        Claims claims;
+        try {
+            claims = jwtUtil.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return "invalid";
+        }
+        String subject = claims.getSubject();
+
+        if(subject==null || SecurityContextHolder.getContext().getAuthentication() != null){
+            return "skipped";
+        }
+        Integer customerId = claims.get(JWTUtil.CUSTOMER_ID_CLAIM, Integer.class);
+        Integer tokenVersion = claims.get(JWTUtil.TOKEN_VERSION_CLAIM, Integer.class);
+        int version = tokenVersion == null ? 0 : tokenVersion;
 
-        if(subject!=null && SecurityContextHolder.getContext().getAuthentication() == null){
+        if(customerId != null && !tokenVersionRegistry.isCurrent(customerId, version)){
+            return "revoked";
+        }
+
+        UsernamePasswordAuthenticationToken authenticationToken = null;
+        if(authenticationMode == AuthenticationMode.CLAIMS && customerId != null){
+            authenticationToken = new UsernamePasswordAuthenticationToken(
+                    new CustomerPrincipal(customerId, subject, version), null, getAuthorities(claims));
+        } else {
             UserDetails userDetails = userDetailsService.loadUserByUsername(subject);
 
-            if(jwtUtil.isTokenValid(jwt, userDetails.getUsername())){
+            if(subject.equals(userDetails.getUsername())){
+                authenticationToken = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+            }
+        }
 
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+        if(authenticationToken == null){
+            return "rejected";
+        }
+        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        return "authenticated";
+    }
 
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+    private List<GrantedAuthority> getAuthorities(Claims claims) {
+        List<?> scopes = claims.get(JWTUtil.SCOPES_CLAIM, List.class);
+        if(scopes == null){
+            return List.of();
         }
-        filterChain.doFilter(request, response);
+        return scopes.stream()
+                .map(scope -> (GrantedAuthority) new SimpleGrantedAuthority(scope.toString()))
+                .toList();
     }
 }
@@ -1,35 +1,74 @@
 package com.amigoscode.fullstack.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-
-import static java.time.temporal.ChronoUnit.*;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JWTUtil {
 
     private static final String SECRET_KEY = "123_test_321_123_test_321_123_test_321_123_test_321";
 
+    public static final String SCOPES_CLAIM = "scopes";
+    public static final String CUSTOMER_ID_CLAIM = "cid";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    public static final Duration TOKEN_LIFETIME = Duration.ofDays(15);
+
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser jwtParser = Jwts
+            .parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JWTUtil(
+            @Value("${jwt.verified-token-cache.maximum-size:10000}") long maximumSize,
+            MeterRegistry meterRegistry) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
     public String issueToken(String subject){
         return issueToken(subject, Map.of());
     }
 
     public String issueToken(String subject, String ...scopes){
 
-        return issueToken(subject, Map.of("scopes", scopes));
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes));
     }
     public String issueToken(String subject, List<String> scopes){
 
-        return issueToken(subject, Map.of("scopes", scopes));
+        return issueToken(subject, Map.of(SCOPES_CLAIM, scopes));
+    }
+
+    public String issueToken(String subject, Integer customerId, List<String> scopes, int tokenVersion){
+
+        return issueToken(subject, Map.of(
+                SCOPES_CLAIM, scopes,
+                CUSTOMER_ID_CLAIM, customerId,
+                TOKEN_VERSION_CLAIM, tokenVersion));
     }
 
     public String issueToken(String subject, Map<String, Object> claims){
@@ -40,37 +79,56 @@ public class JWTUtil {
                 .setSubject(subject)
                 .setIssuer("https://amigoscode.com")
                 .setIssuedAt(Date.from(Instant.now()))
-                .setExpiration(Date.from(Instant.now().plus(15, DAYS)))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setExpiration(Date.from(Instant.now().plus(TOKEN_LIFETIME)))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
 
         return token;
     }
 
+    public Claims parseToken(String token) {
+        return verifiedTokens.get(token, this::verify);
+    }
+
     public String getSubject(String token){
-        return getClaims(token).getSubject();
+        return parseToken(token).getSubject();
     }
 
-    private Claims getClaims(String token) {
-        Claims claims = Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+    private Claims verify(String token) {
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
-        return claims;
     }
 
-    private Key getSigningKey(){
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    public boolean isTokenValid(String jwt, String username) {
+        Claims claims = parseToken(jwt);
+        return claims.getSubject().equals(username) && !isTokenExpired(claims);
     }
 
-    public boolean isTokenValid(String jwt, String username) {
-        String subject = getSubject(jwt);
-        return subject.equals(username) && !isTokenExpired(jwt);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(Date.from(Instant.now()));
     }
 
-    private boolean isTokenExpired(String jwt) {
-        return getClaims(jwt).getExpiration().before(Date.from(Instant.now()));
+    private static class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return Long.MAX_VALUE;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
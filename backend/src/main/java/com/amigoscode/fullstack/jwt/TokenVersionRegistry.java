@@ -0,0 +1,97 @@
+package com.amigoscode.fullstack.jwt;
+
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TokenVersionRegistry {
+
+    static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, Integer> versions = new ConcurrentHashMap<>();
+    private volatile Instant lastRevokedAt;
+
+    public TokenVersionRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public int currentVersion(Integer customerId) {
+        return versions.getOrDefault(customerId, 0);
+    }
+
+    public int issueVersion(Integer customerId) {
+        var sql = """
+                SELECT token_version FROM customer_token_versions WHERE customer_id = ?
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("token_version"), customerId)
+                .stream()
+                .findFirst()
+                .map(version -> versions.merge(customerId, version, Math::max))
+                .orElseGet(() -> currentVersion(customerId));
+    }
+
+    public boolean isCurrent(Integer customerId, int tokenVersion) {
+        return tokenVersion >= currentVersion(customerId);
+    }
+
+    public void revoke(Integer customerId) {
+        var sql = """
+                INSERT INTO customer_token_versions(customer_id, token_version, revoked_at) VALUES (?, 1, now())
+                ON CONFLICT (customer_id) DO UPDATE
+                SET token_version = customer_token_versions.token_version + 1, revoked_at = now()
+                RETURNING token_version
+                """;
+        Integer version = jdbcTemplate.queryForObject(sql, Integer.class, customerId);
+        versions.merge(customerId, version, Math::max);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.token-versions.refresh-interval:PT30S}")
+    public void refresh() {
+        Instant since = lastRevokedAt;
+        Instant[] latest = {since};
+        RowCallbackHandler handler = rs -> {
+            versions.merge(rs.getInt("customer_id"), rs.getInt("token_version"), Math::max);
+            Instant revokedAt = rs.getTimestamp("revoked_at").toInstant();
+            if (latest[0] == null || revokedAt.isAfter(latest[0])) {
+                latest[0] = revokedAt;
+            }
+        };
+        if (since == null) {
+            var sql = """
+                    SELECT customer_id, token_version, revoked_at FROM customer_token_versions
+                    """;
+            jdbcTemplate.query(sql, handler);
+        } else {
+            var sql = """
+                    SELECT customer_id, token_version, revoked_at FROM customer_token_versions
+                    WHERE revoked_at > ?
+                    """;
+            jdbcTemplate.query(sql, handler, Timestamp.from(since.minus(REFRESH_OVERLAP)));
+        }
+        lastRevokedAt = latest[0];
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.token-versions.prune-interval:PT1H}")
+    public void prune() {
+        var sql = """
+                DELETE FROM customer_token_versions v
+                WHERE v.revoked_at < ?
+                AND NOT EXISTS (SELECT 1 FROM customers c WHERE c.id = v.customer_id)
+                RETURNING v.customer_id
+                """;
+        jdbcTemplate.queryForList(sql, Integer.class, Timestamp.from(Instant.now().minus(JWTUtil.TOKEN_LIFETIME)))
+                .forEach(versions::remove);
+    }
+}
@@ -0,0 +1,126 @@
+package com.amigoscode.fullstack.securiry;
+
+import com.amigoscode.fullstack.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int threads,
+                                  int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .register(meterRegistry);
+    }
+
+    public PasswordEncoder delegate() {
+        return delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    public List<CompletableFuture<String>> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int window = executor.getMaximumPoolSize();
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (CharSequence rawPassword : rawPasswords) {
+            if (hashes.size() >= window) {
+                hashes.get(hashes.size() - window).exceptionally(e -> null).join();
+            }
+            try {
+                hashes.add(CompletableFuture.supplyAsync(
+                        () -> encodeTimer.record(() -> delegate.encode(rawPassword)), executor));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                hashes.add(CompletableFuture.failedFuture(overloaded()));
+            }
+        }
+        return hashes;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw overloaded();
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("password hashing capacity exceeded, please retry later");
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
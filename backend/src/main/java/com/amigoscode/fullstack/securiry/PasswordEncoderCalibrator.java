@@ -0,0 +1,91 @@
+package com.amigoscode.fullstack.securiry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+public class PasswordEncoderCalibrator {
+
+    static final String BCRYPT = "bcrypt";
+    static final String ARGON2 = "argon2";
+
+    static final int MIN_BCRYPT_STRENGTH = 10;
+    static final int MAX_BCRYPT_STRENGTH = 31;
+    static final int MIN_ARGON2_ITERATIONS = 2;
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final int ARGON2_PARALLELISM = 1;
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordEncoderCalibrator.class);
+
+    private final Duration targetLatency;
+    private final int argon2MemoryKib;
+
+    public PasswordEncoderCalibrator(Duration targetLatency, int argon2MemoryKib) {
+        this.targetLatency = targetLatency;
+        this.argon2MemoryKib = argon2MemoryKib;
+    }
+
+    public PasswordEncoder delegatingPasswordEncoder(String algorithm) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("unsupported password encoder algorithm [%s]".formatted(algorithm));
+        }
+        BCryptPasswordEncoder bcrypt = BCRYPT.equals(algorithm)
+                ? new BCryptPasswordEncoder(calibrateBCryptStrength())
+                : new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        Argon2PasswordEncoder argon2 = ARGON2.equals(algorithm)
+                ? argon2PasswordEncoder(calibrateArgon2Iterations())
+                : argon2PasswordEncoder(MIN_ARGON2_ITERATIONS);
+
+        DelegatingPasswordEncoder delegatingPasswordEncoder =
+                new DelegatingPasswordEncoder(algorithm, Map.of(BCRYPT, bcrypt, ARGON2, argon2));
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegatingPasswordEncoder;
+    }
+
+    int calibrateBCryptStrength() {
+        long nanos = measure(new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH));
+        int strength = MIN_BCRYPT_STRENGTH;
+        while (strength < MAX_BCRYPT_STRENGTH && nanos * 2 <= targetLatency.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+        log.info("Calibrated bcrypt strength {} (~{} ms per hash, target {} ms)",
+                strength, Duration.ofNanos(nanos).toMillis(), targetLatency.toMillis());
+        return strength;
+    }
+
+    int calibrateArgon2Iterations() {
+        long nanos = measure(argon2PasswordEncoder(MIN_ARGON2_ITERATIONS));
+        long perIteration = Math.max(1, nanos / MIN_ARGON2_ITERATIONS);
+        int iterations = (int) Math.max(MIN_ARGON2_ITERATIONS, targetLatency.toNanos() / perIteration);
+        log.info("Calibrated argon2 iterations {} with {} KiB memory (~{} ms per hash, target {} ms)",
+                iterations, argon2MemoryKib, Duration.ofNanos(perIteration * iterations).toMillis(), targetLatency.toMillis());
+        return iterations;
+    }
+
+    private Argon2PasswordEncoder argon2PasswordEncoder(int iterations) {
+        return new Argon2PasswordEncoder(
+                ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, argon2MemoryKib, iterations);
+    }
+
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
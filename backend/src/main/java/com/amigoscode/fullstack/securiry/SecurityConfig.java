@@ -1,26 +1,36 @@
 package com.amigoscode.fullstack.securiry;
 
+import com.amigoscode.fullstack.customer.CustomerUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${security.password-encoder.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password-encoder.target-latency:50ms}") Duration targetLatency,
+            @Value("${security.password-encoder.argon2-memory-kib:19456}") int argon2MemoryKib,
+            MeterRegistry meterRegistry){
+        PasswordEncoderCalibrator calibrator = new PasswordEncoderCalibrator(targetLatency, argon2MemoryKib);
+        return new BoundedPasswordEncoder(
+                calibrator.delegatingPasswordEncoder(algorithm), threads, queueCapacity, meterRegistry);
     }
 
     @Bean
@@ -30,10 +40,11 @@ public class SecurityConfig {
 
     @Bean
     public AuthenticationProvider authenticationProvider(
-            UserDetailsService userDetailsService, PasswordEncoder passwordEncoder){
+            CustomerUserDetailsService userDetailsService, PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsService);
         return daoAuthenticationProvider;
     }
 }
@@ -1,6 +1,9 @@
 package com.amigoscode.fullstack.securiry;
 
 import com.amigoscode.fullstack.jwt.JWTAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -33,9 +36,13 @@ public class SecurityFilterChainConfig {
                 .csrf().disable()
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests()
-                .requestMatchers(HttpMethod.POST, "/api/customers", "/api/auth/login")
+                .dispatcherTypeMatchers(DispatcherType.ASYNC)
                 .permitAll()
-                .requestMatchers(HttpMethod.GET, "/actuator/**")
+                .requestMatchers(HttpMethod.POST, "/api/customers", "/api/auth/login", "/api/reactive/auth/login")
+                .permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/customers/email-available")
+                .permitAll()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class))
                 .permitAll()
                 .anyRequest()
                 .authenticated()
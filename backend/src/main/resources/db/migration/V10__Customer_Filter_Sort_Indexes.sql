@@ -0,0 +1,5 @@
+create index concurrently if not exists customers_age_id_idx
+on customers (customer_age, id);
+
+create index concurrently if not exists customers_name_id_idx
+on customers (customer_name, id);
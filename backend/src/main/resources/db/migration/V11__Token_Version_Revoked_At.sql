@@ -0,0 +1,5 @@
+alter table customer_token_versions
+add column revoked_at timestamptz not null default now();
+
+create index customer_token_versions_revoked_at_idx
+on customer_token_versions (revoked_at);
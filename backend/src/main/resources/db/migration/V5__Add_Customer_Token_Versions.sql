@@ -0,0 +1,4 @@
+create table customer_token_versions(
+    customer_id bigint primary key,
+    token_version int not null
+);
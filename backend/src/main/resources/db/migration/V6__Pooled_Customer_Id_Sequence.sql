@@ -0,0 +1,8 @@
+alter sequence customers_id_seq increment by 50;
+
+select setval(
+    'customers_id_seq',
+    greatest(
+        (select coalesce(max(id), 0) from customers),
+        (select last_value from customers_id_seq),
+        1));
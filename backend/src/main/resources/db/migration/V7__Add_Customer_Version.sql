@@ -0,0 +1,2 @@
+alter table customers
+add column version int not null default 0;
@@ -0,0 +1,16 @@
+create sequence customers_change_seq;
+
+create function bump_customers_change_seq() returns trigger as $$
+begin
+    perform nextval('customers_change_seq');
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger customers_change_counter
+after insert or update or delete on customers
+for each statement execute function bump_customers_change_seq();
+
+create trigger customers_truncate_change_counter
+after truncate on customers
+for each statement execute function bump_customers_change_seq();
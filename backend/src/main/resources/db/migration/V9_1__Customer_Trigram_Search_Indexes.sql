@@ -0,0 +1,5 @@
+create index concurrently if not exists customers_name_trgm_idx
+on customers using gist (customer_name gist_trgm_ops);
+
+create index concurrently if not exists customers_email_trgm_idx
+on customers using gist (customer_email gist_trgm_ops);
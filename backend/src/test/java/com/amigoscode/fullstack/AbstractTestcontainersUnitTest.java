@@ -21,7 +21,7 @@ public abstract class AbstractTestcontainersUnitTest {
                 container.getJdbcUrl(),
                 "postgres",
                 "bestuser"
-        ).load();
+        ).configuration(FlywayConfig.NON_TRANSACTIONAL_LOCK).load();
         flyway.migrate();
     }
     @Container
@@ -45,6 +45,18 @@ public abstract class AbstractTestcontainersUnitTest {
                 "spring.datasource.password",
                 container::getPassword
         );
+        registry.add(
+                "spring.r2dbc.url",
+                AbstractTestcontainersUnitTest::getR2dbcUrl
+        );
+        registry.add(
+                "spring.r2dbc.username",
+                container::getUsername
+        );
+        registry.add(
+                "spring.r2dbc.password",
+                container::getPassword
+        );
     }
 
     private static DataSource getDataSource(){
@@ -56,11 +68,38 @@ public abstract class AbstractTestcontainersUnitTest {
         return builder.build();
     }
 
+    protected static String getR2dbcUrl(){
+        return "r2dbc:postgresql://%s:%d/%s".formatted(
+                container.getHost(),
+                container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT),
+                container.getDatabaseName());
+    }
+
     protected static JdbcTemplate getJdbcTemplate(){
         return new JdbcTemplate(getDataSource());
     }
 
     protected static final Faker FAKER = new Faker();
 
+    protected static String insertCustomer(JdbcTemplate jdbcTemplate){
+        String email = FAKER.internet().safeEmailAddress();
+        jdbcTemplate.update("""
+                INSERT INTO customers(customer_name, customer_email, password, customer_age, gender)
+                VALUES (?, ?, 'foobar', 20, 'MALE')
+                """, FAKER.name().fullName(), email);
+        return email;
+    }
+
+    protected static int countCustomers(JdbcTemplate jdbcTemplate){
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM customers", Integer.class);
+    }
+
+    protected static int countCustomersByEmail(JdbcTemplate jdbcTemplate, String... emails){
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customers WHERE customer_email = ANY (?)",
+                Integer.class,
+                (Object) emails);
+    }
+
 
 }
@@ -0,0 +1,38 @@
+package com.amigoscode.fullstack;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadsConfigTest {
+
+    private final VirtualThreadsConfig underTest = new VirtualThreadsConfig();
+
+    @Test
+    void itShouldRunTasksOnVirtualThreads() throws Exception {
+        //Given
+        assumeTrue(Runtime.version().feature() >= 21);
+        AsyncTaskExecutor executor = underTest.applicationTaskExecutor();
+        //When
+        Future<Boolean> actual = executor.submit(() ->
+                (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+        //Then
+        assertThat(actual.get()).isTrue();
+    }
+
+    @Test
+    void itShouldFailFastBeforeJava21() {
+        //Given
+        assumeTrue(Runtime.version().feature() < 21);
+        //When
+        //Then
+        assertThatThrownBy(underTest::applicationTaskExecutor)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("requires Java 21");
+    }
+}
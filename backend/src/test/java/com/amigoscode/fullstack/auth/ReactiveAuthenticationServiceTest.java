@@ -0,0 +1,60 @@
+package com.amigoscode.fullstack.auth;
+
+import com.amigoscode.fullstack.customer.CustomerDTOMapper;
+import com.amigoscode.fullstack.customer.ReactiveCustomerDAO;
+import com.amigoscode.fullstack.jwt.JWTUtil;
+import com.amigoscode.fullstack.jwt.TokenVersionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveAuthenticationServiceTest {
+
+    private ReactiveAuthenticationService underTest;
+
+    @Mock
+    private ReactiveCustomerDAO customerDAO;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private JWTUtil jwtUtil;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveAuthenticationService(
+                customerDAO, passwordEncoder, new CustomerDTOMapper(), jwtUtil, tokenVersionRegistry);
+    }
+
+    @Test
+    void itShouldHashAgainstDummyPasswordWhenEmailIsUnknown() {
+        //Given
+        when(customerDAO.selectUserByEmail(anyString())).thenReturn(Mono.empty());
+        when(passwordEncoder.encode("userNotFoundPassword")).thenReturn("dummy");
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.login(new AuthenticationRequest("unknown", "foobar")).block())
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> underTest.login(new AuthenticationRequest("other", "qwerty")).block())
+                .isInstanceOf(BadCredentialsException.class);
+        verify(passwordEncoder).matches("foobar", "dummy");
+        verify(passwordEncoder).matches("qwerty", "dummy");
+        verify(passwordEncoder, times(1)).encode("userNotFoundPassword");
+    }
+}
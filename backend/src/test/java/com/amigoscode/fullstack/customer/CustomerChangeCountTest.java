@@ -0,0 +1,84 @@
+package com.amigoscode.fullstack.customer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerChangeCountTest {
+
+    @Mock
+    private CustomerDAO customerDAO;
+
+    @Test
+    void itShouldServeChangeCountLocallyWithinTimeToLive() {
+        //Given
+        CustomerChangeCount underTest = new CustomerChangeCount(customerDAO, Duration.ofMinutes(1));
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L);
+        //When
+        long first = underTest.current();
+        long second = underTest.current();
+        //Then
+        assertThat(first).isEqualTo(7);
+        assertThat(second).isEqualTo(7);
+        verify(customerDAO, times(1)).selectCustomersChangeCount();
+    }
+
+    @Test
+    void itShouldSeeLocalWritesWithoutQuerying() {
+        //Given
+        CustomerChangeCount underTest = new CustomerChangeCount(customerDAO, Duration.ofMinutes(1));
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L);
+        when(customerDAO.advanceCustomersChangeCount()).thenReturn(8L);
+        underTest.current();
+        //When
+        underTest.advance();
+        //Then
+        assertThat(underTest.current()).isEqualTo(8);
+        verify(customerDAO, times(1)).selectCustomersChangeCount();
+    }
+
+    @Test
+    void itShouldReloadChangeCountOnceExpired() {
+        //Given
+        CustomerChangeCount underTest = new CustomerChangeCount(customerDAO, Duration.ZERO);
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L, 9L);
+        //When
+        long first = underTest.current();
+        long second = underTest.current();
+        //Then
+        assertThat(first).isEqualTo(7);
+        assertThat(second).isEqualTo(9);
+    }
+
+    @Test
+    void itShouldReportRecentChangeUntilWindowPasses() throws InterruptedException {
+        //Given
+        CustomerChangeCount underTest = new CustomerChangeCount(customerDAO, Duration.ZERO);
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L);
+        underTest.current();
+        Thread.sleep(20);
+        //When
+        underTest.current();
+        //Then
+        assertThat(underTest.changedWithin(Duration.ofMinutes(1))).isTrue();
+        assertThat(underTest.changedWithin(Duration.ofMillis(10))).isFalse();
+    }
+
+    @Test
+    void itShouldTreatUnknownChangeCountAsRecentlyChanged() {
+        //Given
+        CustomerChangeCount underTest = new CustomerChangeCount(customerDAO, Duration.ZERO);
+        //When
+        //Then
+        assertThat(underTest.changedWithin(Duration.ZERO)).isTrue();
+    }
+}
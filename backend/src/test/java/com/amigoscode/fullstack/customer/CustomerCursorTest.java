@@ -0,0 +1,75 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerCursorTest {
+
+    @Test
+    void itShouldEncodeIdCursorAsPlainId() {
+        //Given
+        CustomerProjection last = new CustomerProjection(42, null, null, null, null, 0);
+
+        //When
+        String actual = CustomerCursor.of(CustomerSort.ID, last).encode();
+
+        //Then
+        assertThat(actual).isEqualTo("42");
+        assertThat(CustomerCursor.decode(actual, CustomerSort.ID_DESC))
+                .isEqualTo(new CustomerCursor(CustomerSort.ID_DESC, 42, 42));
+    }
+
+    @Test
+    void itShouldRoundTripNameCursor() {
+        //Given
+        CustomerProjection last = new CustomerProjection(7, "Doe: John", null, null, null, 0);
+
+        //When
+        String actual = CustomerCursor.of(CustomerSort.NAME_DESC, last).encode();
+
+        //Then
+        assertThat(actual).doesNotContain("Doe");
+        assertThat(CustomerCursor.decode(actual, CustomerSort.NAME_DESC))
+                .isEqualTo(new CustomerCursor(CustomerSort.NAME_DESC, "Doe: John", 7));
+    }
+
+    @Test
+    void itShouldRoundTripAgeCursor() {
+        //Given
+        CustomerProjection last = new CustomerProjection(7, null, null, null, 30, 0);
+
+        //When
+        String actual = CustomerCursor.of(CustomerSort.AGE, last).encode();
+
+        //Then
+        assertThat(CustomerCursor.decode(actual, CustomerSort.AGE))
+                .isEqualTo(new CustomerCursor(CustomerSort.AGE, 30, 7));
+    }
+
+    @Test
+    void itShouldRejectCursorOfAnotherSort() {
+        //Given
+        String cursor = CustomerCursor.of(
+                CustomerSort.AGE, new CustomerProjection(7, null, null, null, 30, 0)).encode();
+
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerCursor.decode(cursor, CustomerSort.NAME))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("cursor does not match sort [name]");
+        assertThatThrownBy(() -> CustomerCursor.decode("42", CustomerSort.AGE))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void itShouldRejectMalformedCursor() {
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerCursor.decode("not a cursor", CustomerSort.NAME))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("invalid cursor [not a cursor]");
+    }
+}
@@ -0,0 +1,79 @@
+package com.amigoscode.fullstack.customer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerDAOMetricsPostProcessorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CustomerDAOMetricsPostProcessor underTest;
+
+    @Mock
+    private CustomerDAO customerDAO;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerDAOMetricsPostProcessor(meterRegistryProvider);
+    }
+
+    @Test
+    void itShouldTimeDAOMethodsAndRecordRows() {
+        //Given
+        when(meterRegistryProvider.getObject()).thenReturn(meterRegistry);
+        CustomerProjection customer = new CustomerProjection(1, "Test", "test", Gender.MALE, 99, 0);
+        when(customerDAO.selectCustomerProjections(CustomerQuery.ALL, 2, CustomerField.ALL)).thenReturn(List.of(customer));
+        CustomerDAO metered = (CustomerDAO) underTest.postProcessAfterInitialization(customerDAO, "jdbc");
+        //When
+        List<CustomerProjection> actual = metered.selectCustomerProjections(CustomerQuery.ALL, 2, CustomerField.ALL);
+        //Then
+        assertThat(actual).containsExactly(customer);
+        assertThat(meterRegistry.get(CustomerDAOMetricsPostProcessor.DAO_TIMER)
+                .tags("dao", "jdbc", "method", "selectCustomerProjections", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(CustomerDAOMetricsPostProcessor.DAO_ROWS)
+                .tags("dao", "jdbc", "method", "selectCustomerProjections")
+                .summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldRecordErrorOutcomeAndRethrow() {
+        //Given
+        when(meterRegistryProvider.getObject()).thenReturn(meterRegistry);
+        when(customerDAO.existsPersonWithId(1)).thenThrow(new IllegalStateException("boom"));
+        CustomerDAO metered = (CustomerDAO) underTest.postProcessAfterInitialization(customerDAO, "jpa");
+        //When
+        //Then
+        assertThatThrownBy(() -> metered.existsPersonWithId(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+        assertThat(meterRegistry.get(CustomerDAOMetricsPostProcessor.DAO_TIMER)
+                .tags("dao", "jpa", "method", "existsPersonWithId", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldLeaveOtherBeansUntouched() {
+        //Given
+        Object bean = new Object();
+        //When
+        Object actual = underTest.postProcessAfterInitialization(bean, "other");
+        //Then
+        assertThat(actual).isSameAs(bean);
+    }
+}
@@ -0,0 +1,173 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.jwt.CustomerPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerDAOReplicaPostProcessorTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private final CustomerReadYourWrites readYourWrites = new CustomerReadYourWrites(Duration.ofMinutes(1), 100);
+    private CustomerDAO underTest;
+
+    @Mock
+    private CustomerDAO customerDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+
+    @Mock
+    private ObjectProvider<CustomerReadYourWrites> readYourWritesProvider;
+
+    @Mock
+    private CustomerChangeCount changeCount;
+
+    @Mock
+    private ObjectProvider<CustomerChangeCount> changeCountProvider;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(readYourWritesProvider.getObject()).thenReturn(readYourWrites);
+        lenient().when(changeCountProvider.getObject()).thenReturn(changeCount);
+        underTest = (CustomerDAO) new CustomerDAOReplicaPostProcessor(
+                transactionManagerProvider, readYourWritesProvider, changeCountProvider, MAX_LAG)
+                .postProcessAfterInitialization(customerDAO, "jdbc");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void itShouldRunReadsInReadOnlyTransaction() {
+        //Given
+        CustomerProjection customer = new CustomerProjection(1, "Test", "test", Gender.MALE, 99, 0);
+        when(transactionManagerProvider.getObject()).thenReturn(transactionManager);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(customerDAO.selectCustomerProjectionById(1, CustomerField.ALL)).thenReturn(Optional.of(customer));
+        //When
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(1, CustomerField.ALL);
+        //Then
+        assertThat(actual).contains(customer);
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+    }
+
+    @Test
+    void itShouldReadRecentlyWrittenCustomerFromPrimary() {
+        //Given
+        Customer customer = new Customer(1, "Test", "test", "foobar", 99, Gender.MALE);
+        when(customerDAO.updateCustomer(customer)).thenReturn(Optional.of("test"));
+        //When
+        underTest.updateCustomer(customer);
+        underTest.selectCustomerProjectionById(1, CustomerField.ALL);
+        underTest.selectUserByEmail("TEST");
+        //Then
+        verify(customerDAO).selectCustomerProjectionById(1, CustomerField.ALL);
+        verify(customerDAO).selectUserByEmail("TEST");
+        verify(transactionManagerProvider, never()).getObject();
+    }
+
+    @Test
+    void itShouldReadFromPrimaryAfterCurrentCustomerWrote() {
+        //Given
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new CustomerPrincipal(7, "writer", 0), null, List.of()));
+        //When
+        underTest.deleteCustomerById(1);
+        underTest.selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        //Then
+        verify(customerDAO).selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        verify(transactionManagerProvider, never()).getObject();
+    }
+
+    @Test
+    void itShouldReadFromPrimaryAfterCurrentCustomerWroteInDatabaseMode() {
+        //Given
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new Customer(7, "writer", "writer", "foobar", 30, Gender.MALE), null, List.of()));
+        //When
+        underTest.deleteCustomerById(1);
+        underTest.selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        //Then
+        verify(customerDAO).selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        verify(transactionManagerProvider, never()).getObject();
+    }
+
+    @Test
+    void itShouldReadListFromPrimaryWhileChangeCountIsYoungerThanMaxLag() {
+        //Given
+        when(changeCount.changedWithin(MAX_LAG)).thenReturn(true);
+        //When
+        underTest.selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        //Then
+        verify(customerDAO).selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        verify(transactionManagerProvider, never()).getObject();
+    }
+
+    @Test
+    void itShouldReadListFromReplicaOnceChangeCountIsOlderThanMaxLag() {
+        //Given
+        when(changeCount.changedWithin(MAX_LAG)).thenReturn(false);
+        when(transactionManagerProvider.getObject()).thenReturn(transactionManager);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        //When
+        underTest.selectCustomerProjections(CustomerQuery.ALL, 10, CustomerField.ALL);
+        //Then
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+    }
+
+    @Test
+    void itShouldKeepPrimaryOnlyReadsOutsideReadOnlyTransaction() {
+        //When
+        underTest.selectCustomersChangeCount();
+        underTest.existsPersonWithEmail("test");
+        //Then
+        verify(customerDAO).selectCustomersChangeCount();
+        verify(customerDAO).existsPersonWithEmail("test");
+        verify(transactionManagerProvider, never()).getObject();
+    }
+
+    @Test
+    void itShouldLeaveOtherBeansUntouched() {
+        //Given
+        Object bean = new Object();
+        //When
+        Object actual = new CustomerDAOReplicaPostProcessor(
+                transactionManagerProvider, readYourWritesProvider, changeCountProvider, MAX_LAG)
+                .postProcessAfterInitialization(bean, "other");
+        //Then
+        assertThat(actual).isSameAs(bean);
+    }
+}
@@ -0,0 +1,55 @@
+package com.amigoscode.fullstack.customer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerDataAccessRegistrarTest {
+
+    private CustomerDataAccessRegistrar underTest;
+    private DefaultListableBeanFactory registry;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerDataAccessRegistrar();
+        registry = new DefaultListableBeanFactory();
+        registry.registerBeanDefinition("jpa", new RootBeanDefinition(CustomerJPAService.class));
+        registry.registerBeanDefinition("jdbc", new RootBeanDefinition(CustomerJDBCService.class));
+    }
+
+    @Test
+    void itShouldAliasConfiguredDataAccess() {
+        //Given
+        underTest.setEnvironment(new MockEnvironment().withProperty("customer.data-access", "jdbc"));
+        //When
+        underTest.postProcessBeanDefinitionRegistry(registry);
+        //Then
+        assertThat(registry.getAliases("jdbc")).containsExactly(CustomerDataAccessRegistrar.CUSTOMER_DAO);
+    }
+
+    @Test
+    void itShouldDefaultToJpa() {
+        //Given
+        underTest.setEnvironment(new MockEnvironment());
+        //When
+        underTest.postProcessBeanDefinitionRegistry(registry);
+        //Then
+        assertThat(registry.getAliases("jpa")).containsExactly(CustomerDataAccessRegistrar.CUSTOMER_DAO);
+    }
+
+    @Test
+    void itShouldRejectUnknownDataAccess() {
+        //Given
+        underTest.setEnvironment(new MockEnvironment().withProperty("customer.data-access", "mongo"));
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.postProcessBeanDefinitionRegistry(registry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("mongo");
+    }
+}
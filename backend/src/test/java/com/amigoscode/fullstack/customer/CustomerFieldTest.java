@@ -0,0 +1,46 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerFieldTest {
+
+    @Test
+    void itShouldParseRequestedFields() {
+        //When
+        Set<CustomerField> actual = CustomerField.parse("id, name,email");
+        //Then
+        assertThat(actual).containsExactly(CustomerField.ID, CustomerField.NAME, CustomerField.EMAIL);
+    }
+
+    @Test
+    void itShouldDefaultToAllFields() {
+        //When
+        //Then
+        assertThat(CustomerField.parse(null)).isEqualTo(CustomerField.ALL);
+        assertThat(CustomerField.parse(" ")).isEqualTo(CustomerField.ALL);
+    }
+
+    @Test
+    void itShouldRejectUnknownField() {
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerField.parse("id,password")).
+                isInstanceOf(RequestValidationException.class).
+                hasMessageContaining("password");
+    }
+
+    @Test
+    void itShouldNeverProjectPasswordColumn() {
+        //When
+        Set<String> actual = CustomerField.columns(CustomerField.ALL);
+        //Then
+        assertThat(actual).doesNotContain("password");
+        assertThat(CustomerField.columns(Set.of(CustomerField.USERNAME))).containsExactly("customer_email");
+    }
+}
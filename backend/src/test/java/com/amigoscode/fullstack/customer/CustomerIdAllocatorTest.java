@@ -0,0 +1,38 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerIdAllocatorTest extends AbstractTestcontainersUnitTest {
+
+    @Test
+    void itShouldHandOutDistinctIdsAcrossBlocksAndAllocators() {
+        //Given
+        CustomerIdAllocator first = new CustomerIdAllocator(getJdbcTemplate(), CustomerIdAllocation.POOLED);
+        CustomerIdAllocator second = new CustomerIdAllocator(getJdbcTemplate(), CustomerIdAllocation.POOLED);
+        //When
+        List<Integer> firstIds = first.nextIds(120);
+        List<Integer> secondIds = second.nextIds(120);
+        //Then
+        Set<Integer> all = new HashSet<>(firstIds);
+        all.addAll(secondIds);
+        assertThat(all).hasSize(240).allSatisfy(id -> assertThat(id).isPositive());
+        assertThat(firstIds).isSorted();
+    }
+
+    @Test
+    void itShouldLeaveIdsToTheDatabaseForSequenceAllocation() {
+        //Given
+        CustomerIdAllocator underTest = new CustomerIdAllocator(getJdbcTemplate(), CustomerIdAllocation.SEQUENCE);
+        //When
+        Integer actual = underTest.nextId();
+        //Then
+        assertThat(actual).isNull();
+    }
+}
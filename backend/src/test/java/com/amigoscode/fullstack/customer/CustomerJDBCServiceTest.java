@@ -4,8 +4,11 @@ import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -18,29 +21,46 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
     void setUp() {
         underTest = new CustomerJDBCService(
                 getJdbcTemplate(),
-                customerRowMapper
+                customerRowMapper,
+                new CustomerIdAllocator(getJdbcTemplate(), CustomerIdAllocation.POOLED)
         );
     }
 
     @Test
-    void itShouldSelectAllCustomers() {
+    void itShouldSelectCustomerById() {
         //Given
+        String email = FAKER.internet().safeEmailAddress();
         Customer customer = new Customer(
                 FAKER.name().fullName(),
-                FAKER.internet().safeEmailAddress(),
+                email,
                 "foobar", 20,
                 Gender.MALE);
-        underTest.insertCustomer(customer);
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
 
         //When
-        List<Customer> actual = underTest.selectAllCustomers();
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
 
         //Then
-        assertThat(actual).isNotEmpty();
+        assertThat(actual).isPresent().hasValueSatisfying(c -> {
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.email()).isEqualTo(customer.getEmail());
+            assertThat(c.age()).isEqualTo(customer.getAge());
+        });
     }
 
     @Test
-    void itShouldSelectCustomerById() {
+    void itShouldReturnEmptyWhenSelectCustomerById() {
+        //Given
+        int id = -1;
+        //When
+        var actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
+        //Then
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void itShouldSelectCustomerVersion() {
         //Given
         String email = FAKER.internet().safeEmailAddress();
         Customer customer = new Customer(
@@ -48,34 +68,194 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
                 email,
                 "foobar", 20,
                 Gender.MALE);
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
+        Customer update = new Customer();
+        update.setId(id);
+        update.setVersion(0);
+        update.setName("Foo");
+        underTest.updateCustomer(update);
+
+        //When
+        Optional<Integer> actual = underTest.selectCustomerVersion(id);
+
+        //Then
+        assertThat(actual).contains(1);
+        assertThat(underTest.selectCustomerVersion(-1)).isEmpty();
+    }
+
+    @Test
+    void itShouldAdvanceChangeCountOnWrite() {
+        //Given
+        long before = underTest.selectCustomersChangeCount();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress(),
+                "foobar", 20,
+                Gender.MALE);
+
+        //When
         underTest.insertCustomer(customer);
+        long afterInsert = underTest.selectCustomersChangeCount();
+        long advanced = underTest.advanceCustomersChangeCount();
 
-        Integer id = underTest.selectAllCustomers().stream().
-                filter(c -> c.getEmail().equals(email)).
-                map(c -> c.getId()).findFirst().orElseThrow();
+        //Then
+        assertThat(afterInsert).isGreaterThan(before);
+        assertThat(advanced).isGreaterThan(afterInsert);
+    }
+
+    @Test
+    void itShouldSelectOnlyRequestedColumns() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 20,
+                Gender.MALE);
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
 
         //When
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(
+                id, CustomerField.parse("id,email"));
 
         //Then
-        assertThat(actual).isPresent().hasValueSatisfying(c -> {
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(customer.getName());
-            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
-            assertThat(c.getAge()).isEqualTo(customer.getAge());
-        });
+        assertThat(actual).contains(new CustomerProjection(id, null, email, null, null, 0));
     }
 
     @Test
-    void itShouldReturnEmptyWhenSelectCustomerById() {
+    void itShouldSelectCustomerProjectionsAfterCursor() {
         //Given
-        int id = -1;
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress(),
+                "foobar", 20,
+                Gender.FEMALE);
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
+
+        //When
+        List<CustomerProjection> actual = underTest.selectCustomerProjections(
+                CustomerQuery.after(id - 1), 1, CustomerField.ALL);
+
+        //Then
+        assertThat(actual).containsExactly(new CustomerProjection(
+                id, customer.getName(), customer.getEmail(), Gender.FEMALE, 20, 0));
+    }
+
+    @Test
+    void itShouldSelectFilteredProjectionsSortedByAgeDescendingAfterCursor() {
+        //Given
+        Integer youngest = insertCustomer(151, Gender.FEMALE);
+        Integer older = insertCustomer(152, Gender.FEMALE);
+        Integer olderLater = insertCustomer(152, Gender.FEMALE);
+        insertCustomer(152, Gender.MALE);
+        insertCustomer(170, Gender.FEMALE);
+        CustomerQuery query = CustomerQuery.parse(150, 155, "female", "-age", null);
+
+        //When
+        List<CustomerProjection> first = underTest.selectCustomerProjections(query, 2, CustomerField.parse("age"));
+        String cursor = CustomerCursor.of(query.sort(), first.get(1)).encode();
+        List<CustomerProjection> second = underTest.selectCustomerProjections(
+                CustomerQuery.parse(150, 155, "female", "-age", cursor), 2, CustomerField.parse("age"));
+
+        //Then
+        assertThat(first).extracting(CustomerProjection::id).containsExactly(olderLater, older);
+        assertThat(second).extracting(CustomerProjection::id).containsExactly(youngest);
+    }
+
+    @Test
+    void itShouldSelectProjectionsSortedByIdDescending() {
+        //Given
+        Integer first = insertCustomer(20, Gender.MALE);
+        Integer second = insertCustomer(20, Gender.MALE);
+
+        //When
+        List<CustomerProjection> actual = underTest.selectCustomerProjections(
+                CustomerQuery.parse(null, null, null, "-id", String.valueOf(second + 1)), 2, CustomerField.parse("id"));
+
+        //Then
+        assertThat(actual).extracting(CustomerProjection::id).containsExactly(second, first);
+    }
+
+    @Test
+    void itShouldSearchCustomersBySubstringRankedBySimilarity() {
+        //Given
+        String token = "zq" + FAKER.number().digits(8);
+        Customer exact = new Customer(
+                token, "exact." + FAKER.internet().safeEmailAddress(), "foobar", 20, Gender.MALE);
+        Customer partial = new Customer(
+                "Someone " + token.toUpperCase() + " Else", FAKER.internet().safeEmailAddress(), "foobar", 30, Gender.FEMALE);
+        Customer byEmail = new Customer(
+                FAKER.name().fullName(), "%s.%s".formatted(token, FAKER.internet().safeEmailAddress()), "foobar", 40, Gender.MALE);
+        Integer exactId = underTest.insertCustomer(exact).orElseThrow();
+        Integer partialId = underTest.insertCustomer(partial).orElseThrow();
+        Integer byEmailId = underTest.insertCustomer(byEmail).orElseThrow();
+
         //When
-        var actual = underTest.selectCustomerById(id);
+        List<CustomerProjection> actual = underTest.searchCustomerProjections(token, 10, CustomerField.parse("id,name"));
+
+        //Then
+        assertThat(actual).extracting(CustomerProjection::id).containsExactlyInAnyOrder(exactId, partialId, byEmailId);
+        assertThat(actual.get(0)).isEqualTo(new CustomerProjection(exactId, token, null, null, null, 0));
+        assertThat(underTest.searchCustomerProjections(token, 1, CustomerField.ALL)).hasSize(1);
+    }
+
+    @Test
+    void itShouldRankOnlyTheClosestMatchesForHighFrequencyTerm() {
+        //Given
+        String token = "gmail" + FAKER.number().digits(8);
+        for (int i = 0; i < 150; i++) {
+            underTest.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    "user%d.%s@%s.com".formatted(i, FAKER.number().digits(6), token),
+                    "foobar", 20, Gender.FEMALE));
+        }
+        Integer exactId = underTest.insertCustomer(new Customer(
+                token, FAKER.internet().safeEmailAddress(), "foobar", 30, Gender.MALE)).orElseThrow();
+
+        //When
+        List<CustomerProjection> actual = underTest.searchCustomerProjections(token, 20, CustomerField.parse("id,email"));
+
+        //Then
+        assertThat(actual).hasSize(20);
+        assertThat(actual.get(0).id()).isEqualTo(exactId);
+        assertThat(actual.subList(1, actual.size()))
+                .allSatisfy(c -> assertThat(c.email()).contains(token));
+    }
+
+    @Test
+    void itShouldTreatLikeWildcardsInSearchLiterally() {
+        //Given
+        underTest.insertCustomer(new Customer(
+                "Percent Person", FAKER.internet().safeEmailAddress(), "foobar", 20, Gender.MALE));
+
+        //When
+        List<CustomerProjection> actual = underTest.searchCustomerProjections("%_%", 10, CustomerField.ALL);
+
         //Then
         assertThat(actual).isEmpty();
     }
 
+    @Test
+    void itShouldStreamCustomerProjectionsInIdOrder() {
+        //Given
+        for (int i = 0; i < 3; i++) {
+            underTest.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress(),
+                    "foobar", 20,
+                    Gender.MALE));
+        }
+        List<Integer> streamed = new ArrayList<>();
+
+        //When
+        long rows = underTest.streamCustomerProjections(
+                CustomerField.parse("id"), 2, customer -> streamed.add(customer.id()));
+
+        //Then
+        assertThat(rows).isEqualTo((long) streamed.size()).isGreaterThanOrEqualTo(3);
+        assertThat(streamed).isSorted().doesNotHaveDuplicates();
+    }
+
     @Test
     void itShouldInsertCustomer() {
         //Given
@@ -120,10 +300,7 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
                 email,
                 "foobar", 20,
                 Gender.MALE);
-        underTest.insertCustomer(customer);
-        Integer id = underTest.selectAllCustomers().stream().
-                filter(c -> c.getEmail().equals(email)).
-                map(c -> c.getId()).findFirst().orElseThrow();
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
 
         //When
         boolean actual = underTest.existsPersonWithId(id);
@@ -152,17 +329,47 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
                 email,
                 "foobar", 20,
                 Gender.MALE);
-        underTest.insertCustomer(customer);
-        Integer id = underTest.selectAllCustomers().stream().
-                filter(c -> c.getEmail().equals(email)).
-                map(c -> c.getId()).findFirst().orElseThrow();
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
         //When
-        underTest.deleteCustomerById(id);
+        boolean deleted = underTest.deleteCustomerById(id);
         //Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        assertThat(deleted).isTrue();
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
         assertThat(actual).isNotPresent();
     }
 
+    @Test
+    void itShouldNotDeleteWhenCustomerIdNotPresent() {
+        //Given
+        int id = -1;
+        //When
+        boolean deleted = underTest.deleteCustomerById(id);
+        //Then
+        assertThat(deleted).isFalse();
+    }
+
+    @Test
+    void itShouldNotInsertCustomerWhenEmailTaken() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        Optional<Integer> first = underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 20,
+                Gender.MALE));
+        //When
+        Optional<Integer> actual = underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 30,
+                Gender.FEMALE));
+        //Then
+        assertThat(first).isPresent();
+        assertThat(actual).isEmpty();
+        assertThat(underTest.selectCustomerProjectionById(first.get(), CustomerField.ALL)).isPresent()
+                .hasValueSatisfying(c -> assertThat(c.email()).isEqualTo(email));
+    }
+
     @Test
     void itShouldUpdateCustomerNewName() {
         //Given
@@ -173,25 +380,25 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
                 email,
                 "foobar", 20,
                 Gender.MALE);
-        underTest.insertCustomer(customer);
-        Integer id = underTest.selectAllCustomers().stream().
-                filter(c -> c.getEmail().equals(email)).
-                map(c -> c.getId()).findFirst().orElseThrow();
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
 
         String newName = "foo";
 
         //When
         Customer update = new Customer();
         update.setId(id);
+        update.setVersion(0);
         update.setName(newName);
-        underTest.updateCustomer(update);
+        Optional<String> updated = underTest.updateCustomer(update);
         //Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        assertThat(updated).contains(email);
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
         assertThat(actual).isPresent().hasValueSatisfying(c->{
-           assertThat(c.getId()).isEqualTo(id);
-           assertThat(c.getName()).isEqualTo(newName);
-           assertThat(c.getAge()).isEqualTo(customer.getAge());
-           assertThat(c.getEmail()).isEqualTo(customer.getEmail());
+           assertThat(c.id()).isEqualTo(id);
+           assertThat(c.name()).isEqualTo(newName);
+           assertThat(c.version()).isEqualTo(1);
+           assertThat(c.age()).isEqualTo(customer.getAge());
+           assertThat(c.email()).isEqualTo(customer.getEmail());
         });
     }
 
@@ -205,25 +412,24 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
                 email,
                 "foobar", 20,
                 Gender.MALE);
-        underTest.insertCustomer(customer);
-        Integer id = underTest.selectAllCustomers().stream().
-                filter(c -> c.getEmail().equals(email)).
-                map(c -> c.getId()).findFirst().orElseThrow();
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
 
         String newEmail = "foo";
 
         //When
         Customer update = new Customer();
         update.setId(id);
+        update.setVersion(0);
         update.setEmail(newEmail);
-        underTest.updateCustomer(update);
+        Optional<String> updated = underTest.updateCustomer(update);
         //Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        assertThat(updated).contains(email);
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
         assertThat(actual).isPresent().hasValueSatisfying(c->{
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(customer.getName());
-            assertThat(c.getAge()).isEqualTo(customer.getAge());
-            assertThat(c.getEmail()).isEqualTo(newEmail);
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.age()).isEqualTo(customer.getAge());
+            assertThat(c.email()).isEqualTo(newEmail);
         });
     }
 
@@ -237,25 +443,120 @@ class CustomerJDBCServiceTest extends AbstractTestcontainersUnitTest {
                 email,
                 "foobar", 20,
                 Gender.MALE);
-        underTest.insertCustomer(customer);
-        Integer id = underTest.selectAllCustomers().stream().
-                filter(c -> c.getEmail().equals(email)).
-                map(c -> c.getId()).findFirst().orElseThrow();
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
 
         int newAge = 55;
 
         //When
         Customer update = new Customer();
         update.setId(id);
+        update.setVersion(0);
         update.setAge(newAge);
-        underTest.updateCustomer(update);
+        Optional<String> updated = underTest.updateCustomer(update);
+        //Then
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
+        assertThat(actual).isPresent().hasValueSatisfying(c->{
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.age()).isEqualTo(newAge);
+            assertThat(c.email()).isEqualTo(customer.getEmail());
+        });
+    }
+
+    @Test
+    void itShouldNotUpdateCustomerWithStaleVersion() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        String name = FAKER.name().fullName();
+        Customer customer = new Customer(
+                name,
+                email,
+                "foobar", 20,
+                Gender.MALE);
+        Integer id = underTest.insertCustomer(customer).orElseThrow();
+
+        Customer first = new Customer();
+        first.setId(id);
+        first.setVersion(0);
+        first.setName("foo");
+        underTest.updateCustomer(first);
+
+        //When
+        Customer stale = new Customer();
+        stale.setId(id);
+        stale.setVersion(0);
+        stale.setName("bar");
+        Optional<String> updated = underTest.updateCustomer(stale);
         //Then
-        Optional<Customer> actual = underTest.selectCustomerById(id);
+        assertThat(updated).isEmpty();
+        Optional<CustomerProjection> actual = underTest.selectCustomerProjectionById(id, CustomerField.ALL);
         assertThat(actual).isPresent().hasValueSatisfying(c->{
-            assertThat(c.getId()).isEqualTo(id);
-            assertThat(c.getName()).isEqualTo(customer.getName());
-            assertThat(c.getAge()).isEqualTo(newAge);
-            assertThat(c.getEmail()).isEqualTo(customer.getEmail());
+            assertThat(c.name()).isEqualTo("foo");
+            assertThat(c.version()).isEqualTo(1);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void itShouldUpdateCustomerPassword() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 20,
+                Gender.MALE);
+        underTest.insertCustomer(customer);
+        Integer id = underTest.selectUserByEmail(email).map(Customer::getId).orElseThrow();
+
+        //When
+        underTest.updateCustomerPassword(id, "{bcrypt}rehashed");
+
+        //Then
+        Optional<Customer> actual = underTest.selectUserByEmail(email);
+        assertThat(actual).isPresent().hasValueSatisfying(c ->
+                assertThat(c.getPassword()).isEqualTo("{bcrypt}rehashed"));
+    }
+
+    @Test
+    void itShouldInsertCustomersInBatch() {
+        //Given
+        String existingEmail = FAKER.internet().safeEmailAddress();
+        underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(), existingEmail, "foobar", 20, Gender.MALE));
+        String newEmail = FAKER.internet().safeEmailAddress() + ".batch";
+        List<Customer> customers = List.of(
+                new Customer(FAKER.name().fullName(), newEmail, "foobar", 30, Gender.FEMALE),
+                new Customer(FAKER.name().fullName(), existingEmail, "other", 40, Gender.MALE));
+
+        //When
+        Map<String, Integer> actual = underTest.insertCustomers(customers);
+
+        //Then
+        assertThat(actual).containsOnlyKeys(newEmail);
+        assertThat(underTest.selectCustomerProjectionById(actual.get(newEmail), CustomerField.ALL)).isPresent()
+                .hasValueSatisfying(c -> assertThat(c.email()).isEqualTo(newEmail));
+    }
+
+    @Test
+    void itShouldSelectExistingEmails() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(), email, "foobar", 20, Gender.MALE));
+        String missing = FAKER.internet().safeEmailAddress() + ".missing";
+
+        //When
+        Set<String> actual = underTest.selectExistingEmails(List.of(email, missing));
+
+        //Then
+        assertThat(actual).containsExactly(email);
+    }
+
+    private Integer insertCustomer(int age, Gender gender) {
+        return underTest.insertCustomer(new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress(),
+                "foobar", age,
+                gender)).orElseThrow();
+    }
+}
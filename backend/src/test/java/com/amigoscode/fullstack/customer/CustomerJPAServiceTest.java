@@ -7,6 +7,14 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 class CustomerJPAServiceTest {
 
     private CustomerJPAService underTest;
@@ -15,10 +23,13 @@ class CustomerJPAServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerIdAllocator customerIdAllocator;
+
     @BeforeEach
     void setUp() {
         autoCloseable = MockitoAnnotations.openMocks(this);
-        underTest = new CustomerJPAService(customerRepository);
+        underTest = new CustomerJPAService(customerRepository, customerIdAllocator);
     }
 
     @AfterEach
@@ -27,31 +38,109 @@ class CustomerJPAServiceTest {
     }
 
     @Test
-    void itShouldSelectAllCustomers() {
+    void itShouldSelectCustomerProjections() {
+        //Given
+        Set<CustomerField> fields = CustomerField.parse("id,name");
+        CustomerQuery query = CustomerQuery.after(10);
         //When
-        underTest.selectAllCustomers();
+        underTest.selectCustomerProjections(query, 5, fields);
         //Then
-        Mockito.verify(customerRepository).findAll();
+        Mockito.verify(customerRepository).findProjections(query, 5, fields);
     }
 
     @Test
-    void itShouldSelectCustomerById() {
+    void itShouldSelectCustomerProjectionById() {
         //Given
         int id = 1;
         //When
-        underTest.selectCustomerById(id);
+        underTest.selectCustomerProjectionById(id, CustomerField.ALL);
+        //Then
+        Mockito.verify(customerRepository).findProjectionById(id, CustomerField.ALL);
+    }
+
+    @Test
+    void itShouldSearchCustomerProjections() {
+        //Given
+        Set<CustomerField> fields = CustomerField.parse("id,name");
+        //When
+        underTest.searchCustomerProjections("john", 20, fields);
+        //Then
+        Mockito.verify(customerRepository).searchProjections("john", 20, fields);
+    }
+
+    @Test
+    void itShouldStreamCustomerProjections() {
+        //Given
+        Consumer<CustomerProjection> consumer = customer -> {};
+        //When
+        underTest.streamCustomerProjections(CustomerField.ALL, 100, consumer);
+        //Then
+        Mockito.verify(customerRepository).streamProjections(CustomerField.ALL, 100, consumer);
+    }
+
+    @Test
+    void itShouldSelectCustomerVersion() {
+        //Given
+        int id = 1;
+        //When
+        underTest.selectCustomerVersion(id);
+        //Then
+        Mockito.verify(customerRepository).findVersionById(id);
+    }
+
+    @Test
+    void itShouldSelectCustomersChangeCount() {
+        //When
+        underTest.selectCustomersChangeCount();
+        //Then
+        Mockito.verify(customerRepository).customersChangeCount();
+    }
+
+    @Test
+    void itShouldAdvanceCustomersChangeCount() {
+        //When
+        underTest.advanceCustomersChangeCount();
         //Then
-        Mockito.verify(customerRepository).findById(id);
+        Mockito.verify(customerRepository).advanceCustomersChangeCount();
     }
 
     @Test
     void itShouldInsertCustomer() {
         //Given
-        Customer customer = new Customer(1, "Test", "test", "foobar", 99, Gender.MALE);
+        Customer customer = new Customer("Test", "test", "foobar", 99, Gender.MALE);
+        Mockito.when(customerIdAllocator.nextId()).thenReturn(51);
+        Mockito.when(customerRepository.insertIfEmailAbsent(51, "Test", "test", "foobar", 99, "MALE"))
+                .thenReturn(Optional.of(51L));
+        //When
+        Optional<Integer> actual = underTest.insertCustomer(customer);
+        //Then
+        assertThat(actual).contains(51);
+    }
+
+    @Test
+    void itShouldLeaveIdToDatabaseForSequenceAllocation() {
+        //Given
+        Customer customer = new Customer("Test", "test", "foobar", 99, Gender.MALE);
+        Mockito.when(customerIdAllocator.nextId()).thenReturn(null);
+        Mockito.when(customerRepository.insertIfEmailAbsent(null, "Test", "test", "foobar", 99, "MALE"))
+                .thenReturn(Optional.of(7L));
         //When
-        underTest.insertCustomer(customer);
+        Optional<Integer> actual = underTest.insertCustomer(customer);
         //Then
-        Mockito.verify(customerRepository).save(customer);
+        assertThat(actual).contains(7);
+    }
+
+    @Test
+    void itShouldInsertCustomersInBatch() {
+        //Given
+        List<Customer> customers = List.of(new Customer("Test", "test", "foobar", 99, Gender.MALE));
+        Mockito.when(customerIdAllocator.nextIds(1)).thenReturn(List.of(51));
+        Mockito.when(customerRepository.insertIfEmailAbsent(customers, List.of(51)))
+                .thenReturn(Map.of("test", 51));
+        //When
+        Map<String, Integer> actual = underTest.insertCustomers(customers);
+        //Then
+        assertThat(actual).containsExactly(Map.entry("test", 51));
     }
 
     @Test
@@ -78,10 +167,22 @@ class CustomerJPAServiceTest {
     void itShouldUpdateCustomer() {
         //Given
         Customer customer = new Customer(1, "Test", "test", "foobar", 99, Gender.MALE);
+        customer.setVersion(3);
         //When
         underTest.updateCustomer(customer);
         //Then
-        Mockito.verify(customerRepository).save(customer);
+        Mockito.verify(customerRepository).updateCustomer(1, 3, "Test", "test", 99);
+    }
+
+    @Test
+    void itShouldUpdateCustomerPassword() {
+        //Given
+        int id = 1;
+        String password = "{bcrypt}hash";
+        //When
+        underTest.updateCustomerPassword(id, password);
+        //Then
+        Mockito.verify(customerRepository).updatePassword(id, password);
     }
 
     @Test
@@ -91,6 +192,6 @@ class CustomerJPAServiceTest {
         //When
         underTest.deleteCustomerById(id);
         //Then
-        Mockito.verify(customerRepository).deleteById(id);
+        Mockito.verify(customerRepository).deleteCustomerById(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerQueryTest {
+
+    @Test
+    void itShouldDefaultToAllCustomersById() {
+        //When
+        CustomerQuery actual = CustomerQuery.parse(null, null, null, null, null);
+
+        //Then
+        assertThat(actual).isEqualTo(CustomerQuery.ALL);
+    }
+
+    @Test
+    void itShouldParseFiltersAndSort() {
+        //When
+        CustomerQuery actual = CustomerQuery.parse(18, 30, "Male", "-name", null);
+
+        //Then
+        assertThat(actual).isEqualTo(new CustomerQuery(18, 30, Gender.MALE, CustomerSort.NAME_DESC, null));
+    }
+
+    @Test
+    void itShouldRejectInvalidAgeRange() {
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerQuery.parse(40, 30, null, null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("minAge [40] must not be greater than maxAge [30]");
+        assertThatThrownBy(() -> CustomerQuery.parse(-1, null, null, null, null))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void itShouldRejectUnknownGenderAndSort() {
+        //When
+        //Then
+        assertThatThrownBy(() -> CustomerQuery.parse(null, null, "other", null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("gender [other] is not one of MALE, FEMALE");
+        assertThatThrownBy(() -> CustomerQuery.parse(null, null, null, "email", null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("unknown sort [email], expected one of id,-id,name,-name,age,-age");
+    }
+}
@@ -0,0 +1,96 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerR2DBCServiceTest extends AbstractTestcontainersUnitTest {
+
+    private CustomerR2DBCService underTest;
+    private CustomerJDBCService jdbcService;
+
+    @BeforeEach
+    void setUp() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(getR2dbcUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, container.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, container.getPassword())
+                .build();
+        underTest = new CustomerR2DBCService(
+                DatabaseClient.create(ConnectionFactories.get(options)),
+                new CustomerReactiveRowMapper());
+        jdbcService = new CustomerJDBCService(
+                getJdbcTemplate(),
+                new CustomerRowMapper(),
+                new CustomerIdAllocator(getJdbcTemplate(), CustomerIdAllocation.POOLED));
+    }
+
+    @Test
+    void itShouldSelectCustomersAfterCursor() {
+        //Given
+        for (int i = 0; i < 3; i++) {
+            jdbcService.insertCustomer(new Customer(
+                    FAKER.name().fullName(),
+                    FAKER.internet().safeEmailAddress(),
+                    "foobar", 20,
+                    Gender.MALE));
+        }
+        List<CustomerProjection> all = jdbcService.selectCustomerProjections(CustomerQuery.ALL, 3, CustomerField.ALL);
+        //When
+        List<Customer> actual = underTest.selectCustomers(all.get(0).id(), 2).collectList().block();
+        //Then
+        assertThat(actual).extracting(Customer::getId)
+                .containsExactly(all.get(1).id(), all.get(2).id());
+        assertThat(actual).extracting(Customer::getPassword).containsOnlyNulls();
+    }
+
+    @Test
+    void itShouldSelectCustomerById() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        Integer id = jdbcService.insertCustomer(new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 20,
+                Gender.FEMALE)).orElseThrow();
+        //When
+        Customer actual = underTest.selectCustomerById(id).block();
+        //Then
+        assertThat(actual).isNotNull();
+        assertThat(actual.getEmail()).isEqualTo(email);
+        assertThat(actual.getGender()).isEqualTo(Gender.FEMALE);
+        assertThat(actual.getVersion()).isZero();
+        assertThat(actual.getPassword()).isNull();
+    }
+
+    @Test
+    void itShouldReturnEmptyWhenCustomerIdNotPresent() {
+        //When
+        Customer actual = underTest.selectCustomerById(-1).block();
+        //Then
+        assertThat(actual).isNull();
+    }
+
+    @Test
+    void itShouldUpdateCustomerPassword() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        Integer id = jdbcService.insertCustomer(new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 20,
+                Gender.MALE)).orElseThrow();
+        //When
+        underTest.updateCustomerPassword(id, "{bcrypt}rehashed").block();
+        //Then
+        Customer actual = underTest.selectUserByEmail(email).block();
+        assertThat(actual).isNotNull();
+        assertThat(actual.getPassword()).isEqualTo("{bcrypt}rehashed");
+    }
+}
@@ -0,0 +1,39 @@
+package com.amigoscode.fullstack.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerReadYourWritesTest {
+
+    @Test
+    void itShouldRememberWrittenIdsAndEmails() {
+        //Given
+        CustomerReadYourWrites underTest = new CustomerReadYourWrites(Duration.ofMinutes(1), 100);
+
+        //When
+        underTest.written(1);
+        underTest.written("John@Example.com");
+        underTest.written(null);
+
+        //Then
+        assertThat(underTest.recentlyWritten(1)).isTrue();
+        assertThat(underTest.recentlyWritten("john@example.com")).isTrue();
+        assertThat(underTest.recentlyWritten(2)).isFalse();
+        assertThat(underTest.recentlyWritten(null)).isFalse();
+    }
+
+    @Test
+    void itShouldForgetWritesAfterWindow() {
+        //Given
+        CustomerReadYourWrites underTest = new CustomerReadYourWrites(Duration.ZERO, 100);
+
+        //When
+        underTest.written(1);
+
+        //Then
+        assertThat(underTest.recentlyWritten(1)).isFalse();
+    }
+}
@@ -9,6 +9,11 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
@@ -93,4 +98,127 @@ class CustomerRepositoryTest extends AbstractTestcontainersUnitTest {
         //Then
         assertThat(actual).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void itShouldInsertIfEmailAbsent() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+
+        //When
+        Optional<Long> first = underTest.insertIfEmailAbsent(
+                null, FAKER.name().fullName(), email, "foobar", 20, Gender.MALE.name());
+        Optional<Long> second = underTest.insertIfEmailAbsent(
+                null, FAKER.name().fullName(), email, "foobar", 30, Gender.FEMALE.name());
+
+        //Then
+        assertThat(first).isPresent();
+        assertThat(second).isEmpty();
+        assertThat(underTest.existsCustomerById(first.get().intValue())).isTrue();
+    }
+
+    @Test
+    void itShouldInsertCustomersInBatchSkippingTakenEmails() {
+        //Given
+        String existingEmail = FAKER.internet().safeEmailAddress();
+        underTest.insertIfEmailAbsent(
+                null, FAKER.name().fullName(), existingEmail, "foobar", 20, Gender.MALE.name());
+        String newEmail = FAKER.internet().safeEmailAddress() + ".batch";
+        List<Customer> customers = List.of(
+                new Customer(FAKER.name().fullName(), newEmail, "foobar", 30, Gender.FEMALE),
+                new Customer(FAKER.name().fullName(), existingEmail, "other", 40, Gender.MALE));
+
+        //When
+        Map<String, Integer> actual = underTest.insertIfEmailAbsent(customers, Arrays.asList(null, null));
+
+        //Then
+        assertThat(actual).containsOnlyKeys(newEmail);
+        assertThat(underTest.existsCustomerById(actual.get(newEmail))).isTrue();
+    }
+
+    @Test
+    void itShouldFindProjectionWithRequestedFieldsOnly() {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                "foobar", 20,
+                Gender.MALE);
+        Integer id = underTest.save(customer).getId();
+
+        //When
+        Optional<CustomerProjection> actual = underTest.findProjectionById(id, CustomerField.parse("name,age"));
+
+        //Then
+        assertThat(actual).hasValueSatisfying(c -> {
+            assertThat(c.id()).isEqualTo(id);
+            assertThat(c.name()).isEqualTo(customer.getName());
+            assertThat(c.age()).isEqualTo(20);
+            assertThat(c.email()).isNull();
+            assertThat(c.gender()).isNull();
+        });
+    }
+
+    @Test
+    void itShouldSearchProjectionsRankedBySimilarity() {
+        //Given
+        String token = "zq" + FAKER.number().digits(8);
+        Customer exact = new Customer(
+                token, FAKER.internet().safeEmailAddress(), "foobar", 20, Gender.MALE);
+        Customer partial = new Customer(
+                "Someone " + token + " Else", FAKER.internet().safeEmailAddress(), "foobar", 30, Gender.FEMALE);
+        Integer partialId = underTest.save(partial).getId();
+        Integer exactId = underTest.save(exact).getId();
+
+        //When
+        List<CustomerProjection> actual = underTest.searchProjections(token.toUpperCase(), 10, CustomerField.parse("name"));
+
+        //Then
+        assertThat(actual).extracting(CustomerProjection::id).containsExactly(exactId, partialId);
+        assertThat(actual.get(0).name()).isEqualTo(token);
+        assertThat(actual.get(0).email()).isNull();
+    }
+
+    @Test
+    void itShouldFindProjectionsAfterCursor() {
+        //Given
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                FAKER.internet().safeEmailAddress(),
+                "foobar", 20,
+                Gender.FEMALE);
+        Integer id = underTest.save(customer).getId();
+
+        //When
+        List<CustomerProjection> actual = underTest.findProjections(CustomerQuery.after(id - 1), 1, CustomerField.ALL);
+
+        //Then
+        assertThat(actual).extracting(CustomerProjection::id).containsExactly(id);
+        assertThat(actual.get(0).gender()).isEqualTo(Gender.FEMALE);
+    }
+
+    @Test
+    void itShouldFindFilteredProjectionsSortedByNameAfterCursor() {
+        //Given
+        Integer anna = underTest.save(new Customer(
+                "Anna", FAKER.internet().safeEmailAddress(), "foobar", 161, Gender.FEMALE)).getId();
+        Integer bella = underTest.save(new Customer(
+                "Bella", FAKER.internet().safeEmailAddress(), "foobar", 162, Gender.FEMALE)).getId();
+        Integer bella2 = underTest.save(new Customer(
+                "Bella", FAKER.internet().safeEmailAddress(), "foobar", 163, Gender.FEMALE)).getId();
+        underTest.save(new Customer(
+                "Adam", FAKER.internet().safeEmailAddress(), "foobar", 162, Gender.MALE));
+        underTest.save(new Customer(
+                "Cara", FAKER.internet().safeEmailAddress(), "foobar", 20, Gender.FEMALE));
+        CustomerQuery query = CustomerQuery.parse(160, 169, "FEMALE", "name", null);
+
+        //When
+        List<CustomerProjection> first = underTest.findProjections(query, 2, CustomerField.parse("name"));
+        List<CustomerProjection> second = underTest.findProjections(
+                query.after(CustomerCursor.of(query.sort(), first.get(1))), 2, CustomerField.parse("name"));
+
+        //Then
+        assertThat(first).extracting(CustomerProjection::id).containsExactly(anna, bella);
+        assertThat(second).extracting(CustomerProjection::id).containsExactly(bella2);
+    }
+}
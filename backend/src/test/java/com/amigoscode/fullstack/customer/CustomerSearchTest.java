@@ -0,0 +1,26 @@
+package com.amigoscode.fullstack.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerSearchTest {
+
+    @Test
+    void itShouldWrapQueryInContainsPattern() {
+        //When
+        String actual = CustomerSearch.containsPattern("john");
+
+        //Then
+        assertThat(actual).isEqualTo("%john%");
+    }
+
+    @Test
+    void itShouldEscapeLikeWildcards() {
+        //When
+        String actual = CustomerSearch.containsPattern("50%_off!");
+
+        //Then
+        assertThat(actual).isEqualTo("%50!%!_off!!%");
+    }
+}
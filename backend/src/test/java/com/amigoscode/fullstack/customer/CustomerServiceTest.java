@@ -1,20 +1,31 @@
 package com.amigoscode.fullstack.customer;
 
 import com.amigoscode.fullstack.exception.DuplicateResourceException;
+import com.amigoscode.fullstack.exception.PreconditionFailedException;
 import com.amigoscode.fullstack.exception.RequestValidationException;
 import com.amigoscode.fullstack.exception.ResourceNotFound;
+import com.amigoscode.fullstack.exception.ServiceOverloadedException;
+import com.amigoscode.fullstack.exception.StaleResourceException;
+import com.amigoscode.fullstack.jwt.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,19 +39,118 @@ class CustomerServiceTest {
     @Mock
     private CustomerDAO customerDAO;
 
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Mock
+    private CustomerEmailIndex customerEmailIndex;
+
     private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDAO, customerDTOMapper, passwordEncoder);
+        underTest = new CustomerService(customerDAO, customerDTOMapper, passwordEncoder, tokenVersionRegistry,
+                new CustomerChangeCount(customerDAO, Duration.ZERO), customerEmailIndex);
+    }
+
+    @Test
+    void itShouldGetCustomersPage() {
+        //Given
+        Customer first = new Customer(1, "Test", "test", "foobar", 99, Gender.MALE);
+        Customer second = new Customer(2, "Foo", "foo", "foobar", 42, Gender.FEMALE);
+        when(customerDAO.selectCustomerProjections(CustomerQuery.ALL, 2, CustomerField.ALL))
+                .thenReturn(List.of(projection(first), projection(second)));
+        //When
+        CustomerPage actual = underTest.getCustomers(CustomerQuery.ALL, 1, CustomerField.ALL);
+        //Then
+        assertThat(actual.customers()).containsExactly(customerDTOMapper.apply(first));
+        assertThat(actual.nextCursor()).isEqualTo(String.valueOf(first.getId()));
+    }
+
+    @Test
+    void itShouldReturnLastCustomersPageWithoutCursor() {
+        //Given
+        Customer customer = new Customer(3, "Test", "test", "foobar", 99, Gender.MALE);
+        when(customerDAO.selectCustomerProjections(CustomerQuery.after(2), 11, CustomerField.ALL))
+                .thenReturn(List.of(projection(customer)));
+        //When
+        CustomerPage actual = underTest.getCustomers(CustomerQuery.after(2), 10, CustomerField.ALL);
+        //Then
+        assertThat(actual.customers()).containsExactly(customerDTOMapper.apply(customer));
+        assertThat(actual.nextCursor()).isNull();
+    }
+
+    @Test
+    void itShouldThrowWhenPageLimitOutOfRange() {
+        //When
+        //Then
+        assertThatThrownBy(()->underTest.getCustomers(CustomerQuery.ALL, 0, CustomerField.ALL)).
+                isInstanceOf(RequestValidationException.class);
+        verify(customerDAO, never()).selectCustomerProjections(any(), anyInt(), any());
+    }
+
+    @Test
+    void itShouldGetCustomersPageWithRequestedFieldsOnly() {
+        //Given
+        Set<CustomerField> fields = CustomerField.parse("id,name");
+        CustomerProjection first = new CustomerProjection(1, "Test", null, null, null, 0);
+        CustomerProjection second = new CustomerProjection(2, "Foo", null, null, null, 0);
+        when(customerDAO.selectCustomerProjections(CustomerQuery.ALL, 2, fields)).thenReturn(List.of(first, second));
+        //When
+        CustomerPage actual = underTest.getCustomers(CustomerQuery.ALL, 1, fields);
+        //Then
+        assertThat(actual.customers()).containsExactly(
+                new CustomerDTO(1, "Test", null, null, null, null, null));
+        assertThat(actual.nextCursor()).isEqualTo("1");
     }
 
     @Test
-    void itShouldGetAllCustomers() {
+    void itShouldSelectSortColumnAndReturnOpaqueCursorForSortedPage() {
+        //Given
+        Set<CustomerField> fields = CustomerField.parse("id,name");
+        CustomerQuery query = CustomerQuery.parse(18, 65, "female", "-age", null);
+        CustomerProjection first = new CustomerProjection(4, "Test", null, null, 42, 0);
+        CustomerProjection second = new CustomerProjection(2, "Foo", null, null, 30, 0);
+        when(customerDAO.selectCustomerProjections(query, 2, CustomerField.parse("id,name,age")))
+                .thenReturn(List.of(first, second));
         //When
-        underTest.getAllCustomers();
+        CustomerPage actual = underTest.getCustomers(query, 1, fields);
         //Then
-        verify(customerDAO).selectAllCustomers();
+        assertThat(actual.customers()).containsExactly(
+                new CustomerDTO(4, "Test", null, null, null, null, null));
+        assertThat(CustomerCursor.decode(actual.nextCursor(), CustomerSort.AGE_DESC))
+                .isEqualTo(new CustomerCursor(CustomerSort.AGE_DESC, 42, 4));
+    }
+
+    @Test
+    void itShouldSearchCustomersWithTrimmedQuery() {
+        //Given
+        Customer customer = new Customer(1, "John Doe", "john@example.com", "foobar", 30, Gender.MALE);
+        when(customerDAO.searchCustomerProjections("john", 20, CustomerField.ALL))
+                .thenReturn(List.of(projection(customer)));
+        //When
+        List<CustomerDTO> actual = underTest.searchCustomers("  john ", 20, CustomerField.ALL);
+        //Then
+        assertThat(actual).containsExactly(customerDTOMapper.apply(customer));
+    }
+
+    @Test
+    void itShouldThrowWhenSearchQueryTooShort() {
+        //When
+        //Then
+        assertThatThrownBy(()->underTest.searchCustomers(" jo ", 20, CustomerField.ALL)).
+                isInstanceOf(RequestValidationException.class).
+                hasMessage("search query must be at least 3 characters");
+        verify(customerDAO, never()).searchCustomerProjections(any(), anyInt(), any());
+    }
+
+    @Test
+    void itShouldThrowWhenSearchLimitOutOfRange() {
+        //When
+        //Then
+        assertThatThrownBy(()->underTest.searchCustomers("john", 101, CustomerField.ALL)).
+                isInstanceOf(RequestValidationException.class);
+        verify(customerDAO, never()).searchCustomerProjections(any(), anyInt(), any());
     }
 
     @Test
@@ -48,23 +158,52 @@ class CustomerServiceTest {
         //Given
         int id = 1;
         Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        customer.setVersion(0);
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
 
         CustomerDTO expected = customerDTOMapper.apply(customer);
         //When
-        CustomerDTO actual = underTest.getCustomer(id);
+        CustomerDTO actual = underTest.getVersionedCustomer(id).customer();
         //Then
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    void itShouldGetCustomerWithETagOfItsVersion() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
+        customer.setVersion(4);
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
+        //When
+        VersionedCustomer actual = underTest.getVersionedCustomer(id);
+        //Then
+        assertThat(actual.customer()).isEqualTo(customerDTOMapper.apply(customer));
+        assertThat(actual.eTag()).isEqualTo("\"1-4\"");
+    }
+
+    @Test
+    void itShouldReloadCustomerFromDatabase() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
+        customer.setVersion(5);
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
+        //When
+        VersionedCustomer actual = underTest.reloadVersionedCustomer(id);
+        //Then
+        assertThat(actual.customer()).isEqualTo(customerDTOMapper.apply(customer));
+        assertThat(actual.eTag()).isEqualTo("\"1-5\"");
+    }
+
     @Test
     void itShouldThrowWhenGetCustomerReturnEmpty() {
         //Given
         int id = 1;
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.empty());
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.empty());
         //When
         //Then
-        assertThatThrownBy(()->underTest.getCustomer(id)).isInstanceOf(ResourceNotFound.class).
+        assertThatThrownBy(()->underTest.getVersionedCustomer(id)).isInstanceOf(ResourceNotFound.class).
                 hasMessage("customer with id [%s] not found".formatted(id));
     }
 
@@ -74,15 +213,18 @@ class CustomerServiceTest {
         String email = "test";
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "Test", email, "foobar", 23, Gender.MALE);
-        when(customerDAO.existsPersonWithEmail(email)).thenReturn(false);
 
         String passwordHash = "qwerty";
         when(passwordEncoder.encode("foobar")).thenReturn(passwordHash);
+        when(customerDAO.insertCustomer(any())).thenReturn(Optional.of(5));
 
         //When
-        underTest.addCustomer(request);
+        Integer actual = underTest.addCustomer(request);
 
         //Then
+        assertThat(actual).isEqualTo(5);
+        verify(customerDAO).advanceCustomersChangeCount();
+        verify(customerEmailIndex).add(email);
         ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
         verify(customerDAO).insertCustomer(customerArgumentCaptor.capture());
         Customer capturedCustomer = customerArgumentCaptor.getValue();
@@ -97,38 +239,145 @@ class CustomerServiceTest {
     void itShouldThrowWhenEmailWasTaken() {
         //Given
         String email = "test";
-        when(customerDAO.existsPersonWithEmail(email)).thenReturn(true);
+        when(customerDAO.insertCustomer(any())).thenReturn(Optional.empty());
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
                 "Test", email, "foobar", 23, Gender.MALE);
         //When
+        //Then
         assertThatThrownBy(()->underTest.addCustomer(request)).
                 isInstanceOf(DuplicateResourceException.class).
                 hasMessage("email is already taken");
+    }
+
+    @Test
+    void itShouldReportEmailAvailableWithoutDatabaseWhenNotInIndex() {
+        //Given
+        String email = "free@amigoscode.com";
+        when(customerEmailIndex.mightContain(email)).thenReturn(false);
+        //When
+        EmailAvailability actual = underTest.isEmailAvailable(email);
+        //Then
+        assertThat(actual).isEqualTo(new EmailAvailability(email, true));
+        verify(customerDAO, never()).existsPersonWithEmail(any());
+    }
+
+    @Test
+    void itShouldCheckDatabaseWhenEmailMightBeTaken() {
+        //Given
+        String email = "taken@amigoscode.com";
+        when(customerEmailIndex.mightContain(email)).thenReturn(true);
+        when(customerDAO.existsPersonWithEmail(email)).thenReturn(true);
+        //When
+        EmailAvailability actual = underTest.isEmailAvailable(email);
+        //Then
+        assertThat(actual).isEqualTo(new EmailAvailability(email, false));
+    }
+
+    @Test
+    void itShouldAddCustomersInBatch() {
+        //Given
+        CustomerRegistrationRequest created = new CustomerRegistrationRequest(
+                "Test", "test", "foobar", 23, Gender.MALE);
+        CustomerRegistrationRequest taken = new CustomerRegistrationRequest(
+                "Taken", "taken", "foobar", 23, Gender.MALE);
+        CustomerRegistrationRequest repeated = new CustomerRegistrationRequest(
+                "Again", "test", "foobar", 23, Gender.MALE);
+        CustomerRegistrationRequest invalid = new CustomerRegistrationRequest(
+                "Invalid", null, "foobar", 23, Gender.MALE);
+        when(customerDAO.selectExistingEmails(any())).thenReturn(Set.of("taken"));
+        when(passwordEncoder.encode("foobar")).thenReturn("qwerty");
+        when(customerDAO.insertCustomers(any())).thenReturn(Map.of("test", 7));
+
+        //When
+        List<CustomerBatchResult> actual =
+                underTest.addCustomers(List.of(created, taken, repeated, invalid));
+
+        //Then
+        assertThat(actual).extracting(CustomerBatchResult::status).containsExactly(
+                CustomerBatchStatus.CREATED,
+                CustomerBatchStatus.DUPLICATE,
+                CustomerBatchStatus.DUPLICATE,
+                CustomerBatchStatus.INVALID);
+        assertThat(actual.get(0).id()).isEqualTo(7);
+        ArgumentCaptor<List<Customer>> customersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(customerDAO).insertCustomers(customersCaptor.capture());
+        assertThat(customersCaptor.getValue()).singleElement().satisfies(c -> {
+            assertThat(c.getEmail()).isEqualTo("test");
+            assertThat(c.getPassword()).isEqualTo("qwerty");
+        });
+    }
+
+    @Test
+    void itShouldReportOverloadedHashingPerItemInBatch() {
+        //Given
+        CustomerRegistrationRequest created = new CustomerRegistrationRequest(
+                "Test", "test", "foobar", 23, Gender.MALE);
+        CustomerRegistrationRequest overloaded = new CustomerRegistrationRequest(
+                "Busy", "busy", "busy", 23, Gender.MALE);
+        when(customerDAO.selectExistingEmails(any())).thenReturn(Set.of());
+        when(passwordEncoder.encode("foobar")).thenReturn("qwerty");
+        when(passwordEncoder.encode("busy")).thenThrow(new ServiceOverloadedException("busy"));
+        when(customerDAO.insertCustomers(any())).thenReturn(Map.of("test", 7));
+
+        //When
+        List<CustomerBatchResult> actual = underTest.addCustomers(List.of(created, overloaded));
+
+        //Then
+        assertThat(actual).extracting(CustomerBatchResult::status).containsExactly(
+                CustomerBatchStatus.CREATED,
+                CustomerBatchStatus.OVERLOADED);
+        ArgumentCaptor<List<Customer>> customersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(customerDAO).insertCustomers(customersCaptor.capture());
+        assertThat(customersCaptor.getValue()).extracting(Customer::getEmail).containsExactly("test");
+    }
+
+    @Test
+    void itShouldNotInsertWhenEveryHashIsOverloaded() {
+        //Given
+        CustomerRegistrationRequest overloaded = new CustomerRegistrationRequest(
+                "Busy", "busy", "busy", 23, Gender.MALE);
+        when(customerDAO.selectExistingEmails(any())).thenReturn(Set.of());
+        when(passwordEncoder.encode("busy")).thenThrow(new ServiceOverloadedException("busy"));
+
+        //When
+        List<CustomerBatchResult> actual = underTest.addCustomers(List.of(overloaded));
+
         //Then
-        verify(customerDAO, never()).insertCustomer(any());
+        assertThat(actual).extracting(CustomerBatchResult::status).containsExactly(CustomerBatchStatus.OVERLOADED);
+        verify(customerDAO, never()).insertCustomers(any());
+    }
+
+    @Test
+    void itShouldThrowWhenBatchIsEmpty() {
+        //When
+        //Then
+        assertThatThrownBy(()->underTest.addCustomers(List.of())).
+                isInstanceOf(RequestValidationException.class);
+        verify(customerDAO, never()).insertCustomers(any());
     }
 
     @Test
     void itShouldDeleteCustomerById() {
         //Given
         int id = 1;
-        when(customerDAO.existsPersonWithId(id)).thenReturn(true);
+        when(customerDAO.deleteCustomerById(id)).thenReturn(true);
         //When
         underTest.deleteCustomerById(id);
         //Then
-        verify(customerDAO).deleteCustomerById(id);
+        verify(tokenVersionRegistry).revoke(id);
+        verify(customerDAO).advanceCustomersChangeCount();
     }
 
     @Test
     void itShouldThrowsWhenDeleteCustomerByIdNotPresent() {
         //Given
         int id = 1;
-        when(customerDAO.existsPersonWithId(id)).thenReturn(false);
+        when(customerDAO.deleteCustomerById(id)).thenReturn(false);
         //When
         assertThatThrownBy(()->underTest.deleteCustomerById(id)).isInstanceOf(ResourceNotFound.class).
                 hasMessage("customer with id [%s] not found".formatted(id));
         //Then
-        verify(customerDAO, never()).deleteCustomerById(id);
+        verify(tokenVersionRegistry, never()).revoke(id);
 
     }
 
@@ -137,19 +386,24 @@ class CustomerServiceTest {
         //Given
         int id = 1;
         Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        customer.setVersion(3);
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
         String newEmail = "foo";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", newEmail, 97);
-        when(customerDAO.existsPersonWithEmail(newEmail)).thenReturn(false);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.of("test"));
         //When
-        underTest.updateCustomer(id, updateRequest);
+        String eTag = underTest.updateCustomer(id, updateRequest);
         //Then
+        assertThat(eTag).isEqualTo("\"1-4\"");
         ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
         verify(customerDAO).updateCustomer(customerArgumentCaptor.capture());
         Customer capturedCustomer = customerArgumentCaptor.getValue();
         assertThat(capturedCustomer.getAge()).isEqualTo(updateRequest.age());
         assertThat(capturedCustomer.getEmail()).isEqualTo(updateRequest.email());
         assertThat(capturedCustomer.getName()).isEqualTo(updateRequest.name());
+        assertThat(capturedCustomer.getVersion()).isEqualTo(customer.getVersion());
+        verify(tokenVersionRegistry).revoke(id);
+        verify(customerDAO).advanceCustomersChangeCount();
     }
 
     @Test
@@ -157,7 +411,7 @@ class CustomerServiceTest {
         //Given
         int id = 1;
         Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
         CustomerUpdateRequest updateRequest =
                 new CustomerUpdateRequest(customer.getName(), customer.getEmail(), customer.getAge());
         //When
@@ -173,16 +427,190 @@ class CustomerServiceTest {
         //Given
         int id = 1;
         Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
-        when(customerDAO.selectCustomerById(id)).thenReturn(Optional.of(customer));
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
         String newEmail = "new email";
         CustomerUpdateRequest updateRequest = new CustomerUpdateRequest(null, newEmail, null);
-        when(customerDAO.existsPersonWithEmail(newEmail)).thenReturn(true);
+        when(customerDAO.updateCustomer(any())).thenThrow(new DuplicateKeyException("customers_email_unique"));
         //When
         assertThatThrownBy(()->underTest.updateCustomer(id, updateRequest)).
                 isInstanceOf(DuplicateResourceException.class).
                 hasMessage("email is already taken");
         //Then
+        verify(tokenVersionRegistry, never()).revoke(id);
+
+    }
+
+    @Test
+    void itShouldThrowsWhenCustomerModifiedConcurrently() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "Test", "test", "foobar", 99, Gender.MALE);
+        customer.setVersion(2);
+        when(customerDAO.selectCustomerProjectionById(eq(id), any())).thenReturn(Optional.of(projection(customer)));
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", null, null);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.empty());
+        //When
+        assertThatThrownBy(()->underTest.updateCustomer(id, updateRequest)).
+                isInstanceOf(StaleResourceException.class).
+                hasMessage("customer with id [%s] was modified concurrently, please retry".formatted(id));
+        //Then
+        verify(tokenVersionRegistry, never()).revoke(id);
+        verify(customerDAO, never()).advanceCustomersChangeCount();
+    }
+
+    @Test
+    void itShouldGetCustomerETag() {
+        //Given
+        int id = 1;
+        when(customerDAO.selectCustomerVersion(id)).thenReturn(Optional.of(5));
+        //When
+        String actual = underTest.getCustomerETag(id);
+        //Then
+        assertThat(actual).isEqualTo("\"1-5\"");
+    }
+
+    @Test
+    void itShouldThrowWhenGetCustomerETagOfMissingCustomer() {
+        //Given
+        int id = 1;
+        when(customerDAO.selectCustomerVersion(id)).thenReturn(Optional.empty());
+        //When
+        //Then
+        assertThatThrownBy(()->underTest.getCustomerETag(id)).
+                isInstanceOf(ResourceNotFound.class).
+                hasMessage("customer with id [%s] not found".formatted(id));
+    }
+
+    @Test
+    void itShouldChangeCustomersETagWhenTableChanges() {
+        //Given
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L, 8L);
+        //When
+        String before = underTest.getCustomersETag(CustomerQuery.after(10), 50, CustomerField.ALL);
+        String after = underTest.getCustomersETag(CustomerQuery.after(10), 50, CustomerField.ALL);
+        //Then
+        assertThat(before).startsWith("\"7-").contains("-50-");
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void itShouldChangeCustomersETagWithQuery() {
+        //Given
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L);
+        //When
+        String all = underTest.getCustomersETag(CustomerQuery.ALL, 50, CustomerField.ALL);
+        String filtered = underTest.getCustomersETag(CustomerQuery.parse(18, null, null, null, null), 50, CustomerField.ALL);
+        //Then
+        assertThat(filtered).isNotEqualTo(all);
+    }
+
+    @Test
+    void itShouldChangeCustomersETagWithFields() {
+        //Given
+        when(customerDAO.selectCustomersChangeCount()).thenReturn(7L);
+        //When
+        String all = underTest.getCustomersETag(CustomerQuery.ALL, 50, CustomerField.ALL);
+        String names = underTest.getCustomersETag(CustomerQuery.ALL, 50, CustomerField.parse("id,name"));
+        String reordered = underTest.getCustomersETag(CustomerQuery.ALL, 50, CustomerField.parse("name,id"));
+        //Then
+        assertThat(names).isNotEqualTo(all);
+        assertThat(reordered).isEqualTo(names);
+    }
+
+    @Test
+    void itShouldUpdateCustomerMatchingIfMatchWithoutReadingIt() {
+        //Given
+        int id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", null, null);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.of("test"));
+        //When
+        String eTag = underTest.updateCustomer(id, updateRequest, "\"1-2\"");
+        //Then
+        assertThat(eTag).isEqualTo("\"1-3\"");
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDAO).updateCustomer(customerArgumentCaptor.capture());
+        Customer capturedCustomer = customerArgumentCaptor.getValue();
+        assertThat(capturedCustomer.getVersion()).isEqualTo(2);
+        assertThat(capturedCustomer.getName()).isEqualTo("Foo");
+        assertThat(capturedCustomer.getEmail()).isNull();
+        verify(customerDAO, never()).selectCustomerProjectionById(anyInt(), any());
+        verify(customerDAO).advanceCustomersChangeCount();
+        verify(tokenVersionRegistry, never()).revoke(id);
+    }
+
+    @Test
+    void itShouldKeepTokensWhenIfMatchUpdateCarriesUnchangedEmail() {
+        //Given
+        int id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", "test", 30);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.of("test"));
+        //When
+        underTest.updateCustomer(id, updateRequest, "\"1-2\"");
+        //Then
+        verify(tokenVersionRegistry, never()).revoke(id);
+        verify(customerDAO).advanceCustomersChangeCount();
+    }
+
+    @Test
+    void itShouldRevokeTokensWhenIfMatchUpdateChangesEmail() {
+        //Given
+        int id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", "new", 30);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.of("test"));
+        //When
+        underTest.updateCustomer(id, updateRequest, "\"1-2\"");
+        //Then
+        verify(tokenVersionRegistry).revoke(id);
+        verify(customerEmailIndex).add("new");
+    }
+
+    @Test
+    void itShouldFailPreconditionWhenIfMatchIsStale() {
+        //Given
+        int id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", null, null);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.empty());
+        when(customerDAO.existsPersonWithId(id)).thenReturn(true);
+        //When
+        assertThatThrownBy(()->underTest.updateCustomer(id, updateRequest, "\"1-2\"")).
+                isInstanceOf(PreconditionFailedException.class);
+        //Then
+        verify(customerDAO, never()).advanceCustomersChangeCount();
+    }
+
+    @Test
+    void itShouldFailPreconditionWhenIfMatchNamesAnotherCustomer() {
+        //Given
+        int id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", null, null);
+        //When
+        assertThatThrownBy(()->underTest.updateCustomer(id, updateRequest, "\"2-2\"")).
+                isInstanceOf(PreconditionFailedException.class);
+        //Then
         verify(customerDAO, never()).updateCustomer(any());
+    }
+
+    @Test
+    void itShouldThrowWhenIfMatchUpdateTargetsMissingCustomer() {
+        //Given
+        int id = 1;
+        CustomerUpdateRequest updateRequest = new CustomerUpdateRequest("Foo", null, null);
+        when(customerDAO.updateCustomer(any())).thenReturn(Optional.empty());
+        when(customerDAO.existsPersonWithId(id)).thenReturn(false);
+        //When
+        //Then
+        assertThatThrownBy(()->underTest.updateCustomer(id, updateRequest, "\"1-2\"")).
+                isInstanceOf(ResourceNotFound.class).
+                hasMessage("customer with id [%s] not found".formatted(id));
+    }
 
+    private static CustomerProjection projection(Customer customer) {
+        return new CustomerProjection(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getGender(),
+                customer.getAge(),
+                customer.getVersion());
     }
-}
\ No newline at end of file
+}
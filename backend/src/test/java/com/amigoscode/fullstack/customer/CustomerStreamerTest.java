@@ -0,0 +1,98 @@
+package com.amigoscode.fullstack.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStreamerTest {
+
+    private CustomerStreamer underTest;
+
+    @Mock
+    private CustomerDAO customerDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStreamer(customerDAO, new ObjectMapper(), transactionManager, 100);
+    }
+
+    @Test
+    void itShouldWriteEveryRowInsideReadOnlyTransaction() throws Exception {
+        //Given
+        doAnswer(invocation -> {
+            Consumer<CustomerProjection> consumer = invocation.getArgument(2);
+            consumer.accept(new CustomerProjection(1, "Test", "test", Gender.MALE, 99, 0));
+            consumer.accept(new CustomerProjection(2, "Foo", "foo", Gender.FEMALE, 42, 3));
+            return 2L;
+        }).when(customerDAO).streamCustomerProjections(eq(CustomerField.ALL), eq(100), any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //When
+        long rows = underTest.writeCustomers(CustomerField.ALL, outputStream);
+
+        //Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                [{"id":1,"name":"Test","email":"test","gender":"MALE","age":99,"roles":["ROLE_USER"],"username":"test"},\
+                {"id":2,"name":"Foo","email":"foo","gender":"FEMALE","age":42,"roles":["ROLE_USER"],"username":"foo"}]""");
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+    }
+
+    @Test
+    void itShouldWriteOnlyRequestedFields() throws Exception {
+        //Given
+        doAnswer(invocation -> {
+            Consumer<CustomerProjection> consumer = invocation.getArgument(2);
+            consumer.accept(new CustomerProjection(1, "Test", null, null, null, 0));
+            return 1L;
+        }).when(customerDAO).streamCustomerProjections(any(), eq(100), any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //When
+        underTest.writeCustomers(CustomerField.parse("id,name"), outputStream);
+
+        //Then
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo("[{\"id\":1,\"name\":\"Test\"}]");
+    }
+
+    @Test
+    void itShouldNotCloseArrayWhenStreamFails() {
+        //Given
+        doAnswer(invocation -> {
+            Consumer<CustomerProjection> consumer = invocation.getArgument(2);
+            consumer.accept(new CustomerProjection(1, "Test", null, null, null, 0));
+            throw new IllegalStateException("connection reset");
+        }).when(customerDAO).streamCustomerProjections(any(), eq(100), any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //When
+        assertThatThrownBy(() -> underTest.writeCustomers(CustomerField.parse("id,name"), outputStream)).
+                isInstanceOf(IllegalStateException.class);
+
+        //Then
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).doesNotEndWith("]");
+        verify(transactionManager).rollback(any());
+    }
+}
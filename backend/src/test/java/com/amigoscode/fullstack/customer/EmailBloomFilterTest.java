@@ -0,0 +1,44 @@
+package com.amigoscode.fullstack.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailBloomFilterTest {
+
+    @Test
+    void itShouldContainEveryAddedEmail() {
+        //Given
+        EmailBloomFilter underTest = new EmailBloomFilter(10_000, 0.01);
+        //When
+        IntStream.range(0, 10_000).forEach(i -> underTest.add("customer%d@amigoscode.com".formatted(i)));
+        //Then
+        assertThat(IntStream.range(0, 10_000)
+                .allMatch(i -> underTest.mightContain("customer%d@amigoscode.com".formatted(i))))
+                .isTrue();
+    }
+
+    @Test
+    void itShouldKeepFalsePositiveRateNearTarget() {
+        //Given
+        EmailBloomFilter underTest = new EmailBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> underTest.add("customer%d@amigoscode.com".formatted(i)));
+        //When
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> underTest.mightContain("stranger%d@amigoscode.com".formatted(i)))
+                .count();
+        //Then
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void itShouldNotContainEmailsWhenEmpty() {
+        //Given
+        EmailBloomFilter underTest = new EmailBloomFilter(100, 0.01);
+        //When
+        //Then
+        assertThat(underTest.mightContain("test@amigoscode.com")).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package com.amigoscode.fullstack.customer;
+
+import com.amigoscode.fullstack.exception.RequestValidationException;
+import com.amigoscode.fullstack.exception.ResourceNotFound;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveCustomerServiceTest {
+
+    private ReactiveCustomerService underTest;
+
+    @Mock
+    private ReactiveCustomerDAO customerDAO;
+
+    private final CustomerDTOMapper customerDTOMapper = new CustomerDTOMapper();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReactiveCustomerService(customerDAO, customerDTOMapper);
+    }
+
+    @Test
+    void itShouldGetCustomersPage() {
+        //Given
+        Customer first = new Customer(1, "Test", "test", null, 99, Gender.MALE);
+        Customer second = new Customer(2, "Foo", "foo", null, 42, Gender.FEMALE);
+        when(customerDAO.selectCustomers(null, 2)).thenReturn(Flux.just(first, second));
+        //When
+        CustomerPage actual = underTest.getCustomers(null, 1).block();
+        //Then
+        assertThat(actual.customers()).containsExactly(customerDTOMapper.apply(first));
+        assertThat(actual.nextCursor()).isEqualTo(String.valueOf(first.getId()));
+    }
+
+    @Test
+    void itShouldRejectPageSizeOutOfRange() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getCustomers(null, CustomerService.MAX_PAGE_SIZE + 1).block())
+                .isInstanceOf(RequestValidationException.class);
+        verifyNoInteractions(customerDAO);
+    }
+
+    @Test
+    void itShouldGetCustomer() {
+        //Given
+        int id = 1;
+        Customer customer = new Customer(id, "Test", "test", null, 99, Gender.MALE);
+        when(customerDAO.selectCustomerById(id)).thenReturn(Mono.just(customer));
+        //When
+        CustomerDTO actual = underTest.getCustomer(id).block();
+        //Then
+        assertThat(actual).isEqualTo(customerDTOMapper.apply(customer));
+    }
+
+    @Test
+    void itShouldThrowWhenGetCustomerReturnEmpty() {
+        //Given
+        int id = 1;
+        when(customerDAO.selectCustomerById(id)).thenReturn(Mono.empty());
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getCustomer(id).block())
+                .isInstanceOf(ResourceNotFound.class)
+                .hasMessage("customer with id [%s] not found".formatted(id));
+    }
+}
@@ -0,0 +1,130 @@
+package com.amigoscode.fullstack.datasource;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest extends AbstractTestcontainersUnitTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> replicaContainer =
+            new PostgreSQLContainer<>("postgres:latest").
+                    withDatabaseName("fullstack-replica-unit-test").
+                    withUsername("postgres").
+                    withPassword("bestuser");
+
+    private ReplicaRoutingDataSource routing;
+    private HikariDataSource primary;
+
+    @BeforeAll
+    static void markDatabases() {
+        mark(getJdbcTemplate(), "primary");
+        try (HikariDataSource replica = dataSource(replicaContainer.getJdbcUrl())) {
+            mark(new JdbcTemplate(replica), "replica");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+        primary.close();
+    }
+
+    @Test
+    void itShouldRouteReadOnlyTransactionsToHealthyReplica() {
+        //Given
+        DataSource dataSource = routing(replicaContainer.getJdbcUrl(), Duration.ofSeconds(5));
+
+        //When
+        String beforeLagCheck = database(dataSource, true);
+        routing.checkReplicaLag();
+        String readOnly = database(dataSource, true);
+        String readWrite = database(dataSource, false);
+        String outsideTransaction = new JdbcTemplate(dataSource).queryForObject(
+                "SELECT name FROM routing_marker", String.class);
+
+        //Then
+        assertThat(beforeLagCheck).isEqualTo("primary");
+        assertThat(readOnly).isEqualTo("replica");
+        assertThat(readWrite).isEqualTo("primary");
+        assertThat(outsideTransaction).isEqualTo("primary");
+        assertThat(routing.replicaLag()).containsEntry("replica-0", 0L);
+    }
+
+    @Test
+    void itShouldFallBackToPrimaryWhenReplicaLagExceedsThreshold() {
+        //Given
+        DataSource dataSource = routing(replicaContainer.getJdbcUrl(), Duration.ofMillis(-1));
+
+        //When
+        routing.checkReplicaLag();
+        String readOnly = database(dataSource, true);
+
+        //Then
+        assertThat(readOnly).isEqualTo("primary");
+        assertThat(routing.replicaLag()).isEqualTo(Map.of("replica-0", -1L));
+    }
+
+    @Test
+    void itShouldFallBackToPrimaryWhenReplicaIsUnavailable() {
+        //Given
+        DataSource dataSource = routing("jdbc:postgresql://localhost:1/postgres", Duration.ofSeconds(5));
+
+        //When
+        routing.checkReplicaLag();
+        String readOnly = database(dataSource, true);
+
+        //Then
+        assertThat(readOnly).isEqualTo("primary");
+        assertThat(routing.replicaLag()).isEqualTo(Map.of("replica-0", -1L));
+    }
+
+    private DataSource routing(String replicaUrl, Duration maxLag) {
+        primary = dataSource(container.getJdbcUrl());
+        routing = new ReplicaRoutingDataSource(primary, List.of(dataSource(replicaUrl)), maxLag);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static String database(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("SELECT name FROM routing_marker", String.class));
+    }
+
+    private static void mark(JdbcTemplate jdbcTemplate, String name) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS routing_marker(name text)");
+        jdbcTemplate.update("DELETE FROM routing_marker");
+        jdbcTemplate.update("INSERT INTO routing_marker(name) VALUES (?)", name);
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username("postgres")
+                .password("bestuser")
+                .build();
+        dataSource.setConnectionTimeout(1000);
+        dataSource.setMaximumPoolSize(2);
+        return dataSource;
+    }
+}
@@ -0,0 +1,133 @@
+package com.amigoscode.fullstack.datasource;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQueryDataSourcePostProcessorTest extends AbstractTestcontainersUnitTest {
+
+    @Mock
+    private SlowQueryLogger logger;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(SlowQueryDataSourcePostProcessor.wrap(getJdbcTemplate().getDataSource(), logger));
+    }
+
+    @Test
+    void itShouldReportQueryWithRowsParametersAndOrigin() {
+        //Given
+        when(logger.isSlow(anyLong())).thenReturn(true);
+        String previous = QueryOrigin.enter("jdbc.selectCustomers");
+
+        //When
+        List<Integer> actual;
+        try {
+            actual = jdbcTemplate.queryForList("SELECT n FROM generate_series(1, ?) AS n", Integer.class, 3);
+        } finally {
+            QueryOrigin.exit(previous);
+        }
+
+        //Then
+        assertThat(actual).containsExactly(1, 2, 3);
+        ArgumentCaptor<SlowQuery> captor = ArgumentCaptor.forClass(SlowQuery.class);
+        verify(logger).log(captor.capture());
+        SlowQuery query = captor.getValue();
+        assertThat(query.sql()).isEqualTo("SELECT n FROM generate_series(1, ?) AS n");
+        assertThat(query.origin()).isEqualTo("jdbc.selectCustomers");
+        assertThat(query.parameters()).containsExactly(3);
+        assertThat(query.rows()).isEqualTo(3);
+        assertThat(query.batchSize()).isZero();
+        assertThat(query.replayable()).isTrue();
+    }
+
+    @Test
+    void itShouldReportUpdateCountsAndBatchSize() {
+        //Given
+        when(logger.isSlow(anyLong())).thenReturn(true);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS slow_query_test(n int)");
+
+        //When
+        jdbcTemplate.batchUpdate("INSERT INTO slow_query_test(n) VALUES (?)",
+                List.of(new Object[]{1}, new Object[]{2}));
+
+        //Then
+        ArgumentCaptor<SlowQuery> captor = ArgumentCaptor.forClass(SlowQuery.class);
+        verify(logger, times(2)).log(captor.capture());
+        SlowQuery batch = captor.getAllValues().get(1);
+        assertThat(batch.sql()).isEqualTo("INSERT INTO slow_query_test(n) VALUES (?)");
+        assertThat(batch.parameters()).containsExactly(1);
+        assertThat(batch.batchSize()).isEqualTo(2);
+        assertThat(batch.rows()).isEqualTo(2);
+    }
+
+    @Test
+    void itShouldNotReportQueriesUnderThreshold() {
+        //Given
+        when(logger.isSlow(anyLong())).thenReturn(false);
+
+        //When
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+
+        //Then
+        verify(logger, never()).log(any());
+    }
+
+    @Test
+    void itShouldTimeOnlyDatabaseWork() {
+        //Given
+        ArgumentCaptor<Long> elapsed = ArgumentCaptor.forClass(Long.class);
+        when(logger.isSlow(elapsed.capture())).thenReturn(false);
+
+        //When
+        jdbcTemplate.query("SELECT n FROM generate_series(1, 2) AS n", rs -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        //Then
+        assertThat(elapsed.getValue()).isLessThan(Duration.ofMillis(200).toNanos());
+    }
+
+    @Test
+    void itShouldLeaveOtherBeansUntouched() {
+        //Given
+        SlowQueryDataSourcePostProcessor underTest =
+                new SlowQueryDataSourcePostProcessor(Duration.ofMillis(200), List.of("password"), false, 16);
+        DataSource dataSource = getJdbcTemplate().getDataSource();
+        Object bean = new Object();
+
+        //When
+        Object wrapped = underTest.postProcessAfterInitialization(dataSource, SlowQueryDataSourcePostProcessor.DATA_SOURCE_BEAN);
+        Object replica = underTest.postProcessAfterInitialization(dataSource, "replicaDataSource");
+        Object other = underTest.postProcessAfterInitialization(bean, SlowQueryDataSourcePostProcessor.DATA_SOURCE_BEAN);
+
+        //Then
+        assertThat(wrapped).isNotSameAs(dataSource).isInstanceOf(DataSource.class);
+        assertThat(replica).isSameAs(dataSource);
+        assertThat(other).isSameAs(bean);
+    }
+}
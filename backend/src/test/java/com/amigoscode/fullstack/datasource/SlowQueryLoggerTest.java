@@ -0,0 +1,88 @@
+package com.amigoscode.fullstack.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLoggerTest {
+
+    private final SlowQueryLogger underTest =
+            new SlowQueryLogger(Duration.ofMillis(200), Set.of("password"), null, null);
+
+    @Test
+    void itShouldOnlyTreatQueriesOverThresholdAsSlow() {
+        //When
+        //Then
+        assertThat(underTest.isSlow(Duration.ofMillis(199).toNanos())).isFalse();
+        assertThat(underTest.isSlow(Duration.ofMillis(200).toNanos())).isTrue();
+    }
+
+    @Test
+    void itShouldDescribeSlowQuery() {
+        //Given
+        SlowQuery query = new SlowQuery("""
+                SELECT id, customer_name FROM customers
+                WHERE customer_age >= ? AND gender = ?
+                """, "jdbc.selectCustomerProjections", List.of(18, "FEMALE"), true, 42, 0,
+                Duration.ofMillis(250).toNanos());
+
+        //When
+        String actual = underTest.describe(query);
+
+        //Then
+        assertThat(actual).isEqualTo("Slow query took 250 ms, rows=42, origin=jdbc.selectCustomerProjections: "
+                + "SELECT id, customer_name FROM customers WHERE customer_age >= ? AND gender = ? "
+                + "parameters=[18, 'FEMALE']");
+    }
+
+    @Test
+    void itShouldRedactPasswordParameters() {
+        //Given
+        SlowQuery query = new SlowQuery(
+                "INSERT INTO customers(id, customer_name, password, customer_age) VALUES (?, ?, ?, ?)",
+                null, Arrays.asList(1, "Ann", "{bcrypt}hash", new SlowQuery.Null(Types.INTEGER)), true, 1, 3,
+                Duration.ofMillis(300).toNanos());
+
+        //When
+        String actual = underTest.describe(query);
+
+        //Then
+        assertThat(actual).isEqualTo("Slow query took 300 ms, rows=1, batch=3, origin=-: "
+                + "INSERT INTO customers(id, customer_name, password, customer_age) VALUES (?, ?, ?, ?) "
+                + "parameters=[1, 'Ann', ****, null]");
+    }
+
+    @Test
+    void itShouldRedactUnnamedParametersWhenStatementTouchesPasswords() {
+        //Given
+        SlowQuery query = new SlowQuery(
+                "SELECT id, customer_email, password FROM customers WHERE customer_email = ANY(?)",
+                null, List.of("{a@b.c}"), true, 0, 0, Duration.ofMillis(300).toNanos());
+
+        //When
+        String actual = underTest.parameters(query);
+
+        //Then
+        assertThat(actual).isEqualTo("[****]");
+    }
+
+    @Test
+    void itShouldTruncateLongParameters() {
+        //Given
+        String name = "x".repeat(SlowQueryLogger.MAX_PARAMETER_LENGTH + 1);
+        SlowQuery query = new SlowQuery("SELECT id FROM customers WHERE customer_name = ?",
+                null, List.of(name), true, 0, 0, 0);
+
+        //When
+        String actual = underTest.parameters(query);
+
+        //Then
+        assertThat(actual).isEqualTo("['" + "x".repeat(SlowQueryLogger.MAX_PARAMETER_LENGTH) + "...']");
+    }
+}
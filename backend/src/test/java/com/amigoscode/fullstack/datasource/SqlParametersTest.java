@@ -0,0 +1,51 @@
+package com.amigoscode.fullstack.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlParametersTest {
+
+    @Test
+    void itShouldNameInsertParametersByColumn() {
+        //Given
+        String sql = """
+                INSERT INTO customers(id, customer_name, customer_email, password, customer_age, gender)
+                VALUES (COALESCE(?, nextval('customers_id_seq')), ?, ?, ?, ?, ?)
+                ON CONFLICT (customer_email) DO NOTHING
+                """;
+
+        //When
+        List<String> actual = SqlParameters.names(sql);
+
+        //Then
+        assertThat(actual).containsExactly(
+                "id", "customer_name", "customer_email", "password", "customer_age", "gender");
+    }
+
+    @Test
+    void itShouldNameComparedParameters() {
+        //Given
+        String sql = "update customer c1_0 set password=? where c1_0.id=? and \"version\" <> ?";
+
+        //When
+        List<String> actual = SqlParameters.names(sql);
+
+        //Then
+        assertThat(actual).containsExactly("password", "id", "version");
+    }
+
+    @Test
+    void itShouldLeaveExpressionParametersUnnamed() {
+        //Given
+        String sql = "SELECT id FROM customers WHERE lower(customer_email) = ? AND customer_name <> '?' LIMIT ?";
+
+        //When
+        List<String> actual = SqlParameters.names(sql);
+
+        //Then
+        assertThat(actual).containsExactly(null, null);
+    }
+}
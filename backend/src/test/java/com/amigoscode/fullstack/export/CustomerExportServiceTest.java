@@ -0,0 +1,105 @@
+package com.amigoscode.fullstack.export;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import com.amigoscode.fullstack.exception.ResourceNotFound;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerExportServiceTest extends AbstractTestcontainersUnitTest {
+
+    private CustomerExportService underTest;
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerExportService(
+                jdbcTemplate,
+                new ObjectMapper(),
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                directory,
+                2,
+                10,
+                Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void itShouldExportEveryCustomerAsNdjson() throws IOException {
+        //Given
+        String email = insertCustomer(jdbcTemplate);
+        int customers = countCustomers(jdbcTemplate);
+        CustomerExport export = new CustomerExport("ndjson", ExportFormat.NDJSON, false, Instant.now());
+
+        //When
+        underTest.run(export);
+
+        //Then
+        assertThat(export.state()).isEqualTo(ExportState.COMPLETED);
+        List<String> lines = Files.readAllLines(export.file());
+        assertThat(lines).hasSize(customers);
+        assertThat(lines).anySatisfy(line -> assertThat(line).contains("\"email\":\"%s\"".formatted(email)));
+        assertThat(lines).noneSatisfy(line -> assertThat(line).contains("password"));
+        assertThat(export.status().rowsWritten()).isEqualTo(customers);
+        assertThat(export.status().rangesCompleted()).isEqualTo(export.status().rangesTotal());
+        assertThat(Files.list(directory)).containsExactly(export.file());
+    }
+
+    @Test
+    void itShouldExportGzippedCsvWithHeader() throws IOException {
+        //Given
+        String email = insertCustomer(jdbcTemplate);
+        int customers = countCustomers(jdbcTemplate);
+        CustomerExport export = new CustomerExport("csv", ExportFormat.CSV, true, Instant.now());
+
+        //When
+        underTest.run(export);
+
+        //Then
+        assertThat(export.state()).isEqualTo(ExportState.COMPLETED);
+        assertThat(export.fileName()).endsWith(".csv.gz");
+        String content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(export.file()))) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(content).startsWith(CustomerExportService.CSV_HEADER);
+        assertThat(content.lines()).hasSize(customers + 1);
+        assertThat(content).contains(email);
+    }
+
+    @Test
+    void itShouldNotServeFileBeforeExportCompletes() {
+        //Given
+        CustomerExportStatus status = underTest.startExport(new CustomerExportRequest(ExportFormat.CSV, false));
+        //When
+        //Then
+        assertThat(status.state()).isEqualTo(ExportState.QUEUED);
+        assertThatThrownBy(() -> underTest.getExportFile("unknown")).
+                isInstanceOf(ResourceNotFound.class).
+                hasMessage("export with id [unknown] not found");
+    }
+}
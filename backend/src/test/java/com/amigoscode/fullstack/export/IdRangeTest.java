@@ -0,0 +1,39 @@
+package com.amigoscode.fullstack.export;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdRangeTest {
+
+    @Test
+    void itShouldCoverIdSpaceWithoutGapsOrOverlap() {
+        //When
+        List<IdRange> actual = IdRange.split(1, 100, 8);
+        //Then
+        assertThat(actual).hasSizeLessThanOrEqualTo(8);
+        assertThat(actual.get(0).from()).isEqualTo(1);
+        assertThat(actual.get(actual.size() - 1).to()).isEqualTo(101);
+        for (int i = 1; i < actual.size(); i++) {
+            assertThat(actual.get(i).from()).isEqualTo(actual.get(i - 1).to());
+        }
+    }
+
+    @Test
+    void itShouldNotSplitBelowOneId() {
+        //When
+        List<IdRange> actual = IdRange.split(5, 7, 16);
+        //Then
+        assertThat(actual).containsExactly(
+                new IdRange(5, 6), new IdRange(6, 7), new IdRange(7, 8));
+    }
+
+    @Test
+    void itShouldReturnNoRangesForEmptyTable() {
+        //When
+        //Then
+        assertThat(IdRange.split(1, 0, 4)).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package com.amigoscode.fullstack.imports;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerImportMultipartResolverTest {
+
+    private final CustomerImportMultipartResolver underTest =
+            new CustomerImportMultipartResolver(DataSize.ofBytes(16));
+
+    @Test
+    void itShouldRejectOversizedMultipartOutsideImports() {
+        //Given
+        MockHttpServletRequest request = multipart("/api/customers/avatars", 32);
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.resolveMultipart(request))
+                .isInstanceOf(MaxUploadSizeExceededException.class);
+    }
+
+    @Test
+    void itShouldRejectMultipartOfUnknownLengthOutsideImports() {
+        //Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/customers/avatars");
+        request.setContentType("multipart/form-data; boundary=x");
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.resolveMultipart(request))
+                .isInstanceOf(MaxUploadSizeExceededException.class);
+    }
+
+    @Test
+    void itShouldAcceptSmallMultipartOutsideImports() {
+        //Given
+        MockHttpServletRequest request = multipart("/api/customers/avatars", 8);
+
+        //When
+        //Then
+        assertThat(underTest.resolveMultipart(request)).isNotNull();
+    }
+
+    @Test
+    void itShouldLeaveImportUploadsToTheImportLimit() {
+        //Given
+        MockHttpServletRequest request = multipart(CustomerImportMultipartResolver.IMPORTS_PATH, 32);
+
+        //When
+        //Then
+        assertThat(underTest.resolveMultipart(request)).isNotNull();
+    }
+
+    private static MockHttpServletRequest multipart(String path, int length) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("multipart/form-data; boundary=x");
+        request.setContent(new byte[length]);
+        return request;
+    }
+}
@@ -0,0 +1,163 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.customer.Gender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerImportReaderTest {
+
+    private final CustomerImportReader underTest = new CustomerImportReader(new ObjectMapper());
+    private final List<ImportRow> rows = new ArrayList<>();
+    private final List<ImportError> errors = new ArrayList<>();
+
+    private final CustomerImportReader.RowHandler handler = new CustomerImportReader.RowHandler() {
+        @Override
+        public void row(ImportRow row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void invalid(ImportError error) {
+            errors.add(error);
+        }
+    };
+
+    @Test
+    void itShouldParseQuotedCsvValues() throws IOException {
+        //Given
+        CsvRecordReader records = new CsvRecordReader(new StringReader(
+                "\"Doe, John\",\"say \"\"hi\"\"\",,42\r\n\"line\r\nbreak\",x\n"));
+
+        //When
+        List<String> first = records.next();
+        List<String> second = records.next();
+
+        //Then
+        assertThat(first).containsExactly("Doe, John", "say \"hi\"", "", "42");
+        assertThat(second).containsExactly("line\r\nbreak", "x");
+        assertThat(records.line()).isEqualTo(2);
+        assertThat(records.next()).isNull();
+    }
+
+    @Test
+    void itShouldReadCsvWithMultiLineQuotedValues() throws IOException {
+        //Given
+        String csv = """
+                name,email,password,age,gender
+                "Doe,
+                John",john@example.com,"pass
+                word",30,MALE
+                Jane,jane@example.com,secret,25,FEMALE
+                Jim,"jim@example.com,secret,25,MALE
+                """;
+
+        //When
+        read(csv, ImportFormat.CSV);
+
+        //Then
+        assertThat(rows).containsExactly(
+                new ImportRow(2, "Doe,\nJohn", "john@example.com", "pass\nword", 30, Gender.MALE),
+                new ImportRow(5, "Jane", "jane@example.com", "secret", 25, Gender.FEMALE));
+        assertThat(errors).containsExactly(new ImportError(6, null, "unterminated quoted value"));
+    }
+
+    @Test
+    void itShouldRejectOversizedCsvRecord() {
+        //Given
+        String csv = "name,email,password,age,gender\n\"" + "x".repeat(CsvRecordReader.MAX_RECORD_LENGTH);
+
+        //When
+        //Then
+        assertThatThrownBy(() -> read(csv, ImportFormat.CSV))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("csv record at line 2 exceeds %d characters".formatted(CsvRecordReader.MAX_RECORD_LENGTH));
+    }
+
+    @Test
+    void itShouldReadCsvWithHeaderInAnyOrder() throws IOException {
+        //Given
+        String csv = """
+                \uFEFFemail,name,age,gender,password
+                john@example.com,"Doe, John",30,male,secret
+
+                jane@example.com,Jane,25,FEMALE,secret
+                """;
+
+        //When
+        read(csv, ImportFormat.CSV);
+
+        //Then
+        assertThat(errors).isEmpty();
+        assertThat(rows).containsExactly(
+                new ImportRow(2, "Doe, John", "john@example.com", "secret", 30, Gender.MALE),
+                new ImportRow(4, "Jane", "jane@example.com", "secret", 25, Gender.FEMALE));
+    }
+
+    @Test
+    void itShouldReportInvalidCsvRows() throws IOException {
+        //Given
+        String csv = """
+                name,email,password,age,gender
+                John,john@example.com,secret,old,MALE
+                Jane,jane@example.com,secret,25,OTHER
+                Jim,,secret,25,MALE
+                Joe,joe@example.com,,25,MALE
+                """;
+
+        //When
+        read(csv, ImportFormat.CSV);
+
+        //Then
+        assertThat(rows).isEmpty();
+        assertThat(errors).containsExactly(
+                new ImportError(2, null, "age [old] is not a number"),
+                new ImportError(3, null, "gender [OTHER] is not one of MALE, FEMALE"),
+                new ImportError(4, null, "email is required"),
+                new ImportError(5, "joe@example.com", "password is required"));
+    }
+
+    @Test
+    void itShouldRejectCsvWithoutRequiredColumns() {
+        //Given
+        String csv = "name,email\nJohn,john@example.com\n";
+
+        //When
+        //Then
+        assertThatThrownBy(() -> read(csv, ImportFormat.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("csv header must contain columns");
+    }
+
+    @Test
+    void itShouldReadNdjson() throws IOException {
+        //Given
+        String ndjson = """
+                {"name":"John","email":"john@example.com","password":"secret","age":30,"gender":"MALE"}
+                {"name":"Jane","email":
+                {"name":"Jim","email":"jim@example.com","password":"secret","age":0,"gender":"MALE"}
+                """;
+
+        //When
+        read(ndjson, ImportFormat.NDJSON);
+
+        //Then
+        assertThat(rows).containsExactly(
+                new ImportRow(1, "John", "john@example.com", "secret", 30, Gender.MALE));
+        assertThat(errors).extracting(ImportError::line).containsExactly(2L, 3L);
+        assertThat(errors.get(1).reason()).isEqualTo("age must be a positive number");
+    }
+
+    private void read(String body, ImportFormat format) throws IOException {
+        underTest.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, handler);
+    }
+}
@@ -0,0 +1,256 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import com.amigoscode.fullstack.customer.CustomerIdAllocation;
+import com.amigoscode.fullstack.customer.CustomerIdAllocator;
+import com.amigoscode.fullstack.customer.CustomerService;
+import com.amigoscode.fullstack.exception.PayloadTooLargeException;
+import com.amigoscode.fullstack.exception.ResourceNotFound;
+import com.amigoscode.fullstack.securiry.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class CustomerImportServiceTest extends AbstractTestcontainersUnitTest {
+
+    private CustomerImportService underTest;
+    private AutoCloseable autoCloseable;
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private CustomerService customerService;
+
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        Mockito.when(passwordEncoder.encode(anyString())).thenReturn("{bcrypt}hash");
+        underTest = new CustomerImportService(
+                jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                passwordEncoder,
+                new CustomerIdAllocator(jdbcTemplate, CustomerIdAllocation.POOLED),
+                customerService,
+                new ObjectMapper(),
+                directory,
+                DataSize.ofMegabytes(1),
+                2,
+                2,
+                2,
+                10,
+                Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        underTest.shutdown();
+        autoCloseable.close();
+    }
+
+    @Test
+    void itShouldImportCsvAndSkipTakenEmails() {
+        //Given
+        String taken = insertCustomer(jdbcTemplate);
+        String first = FAKER.internet().safeEmailAddress();
+        String second = FAKER.internet().safeEmailAddress();
+        String third = FAKER.internet().safeEmailAddress();
+        String csv = """
+                name,email,password,age,gender
+                John,%s,secret,30,MALE
+                Jane,%s,secret,25,FEMALE
+                Taken,%s,secret,40,MALE
+                Again,%s,secret,50,MALE
+                Jim,%s,secret,35,MALE
+                Broken,,secret,35,MALE
+                """.formatted(first, second, taken, first, third);
+
+        //When
+        CustomerImportStatus actual = importCustomers(csv, ImportFormat.CSV);
+
+        //Then
+        assertThat(actual.state()).isEqualTo(ImportState.COMPLETED);
+        assertThat(actual.rowsRead()).isEqualTo(6);
+        assertThat(actual.rowsStaged()).isEqualTo(4);
+        assertThat(actual.inserted()).isEqualTo(3);
+        assertThat(actual.emailsTaken()).isEqualTo(1);
+        assertThat(actual.duplicatesInFile()).isEqualTo(1);
+        assertThat(actual.invalid()).isEqualTo(1);
+        assertThat(actual.errors()).containsExactly(
+                new ImportError(5, first, "duplicate email in file"),
+                new ImportError(7, null, "email is required"),
+                new ImportError(4, taken, "email is already taken"));
+        assertThat(countCustomersByEmail(jdbcTemplate, first, second, third)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT password FROM customers WHERE customer_email = ?", String.class, first))
+                .isEqualTo("{bcrypt}hash");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT customer_name FROM customers WHERE customer_email = ?", String.class, taken))
+                .isNotEqualTo("Taken");
+        Mockito.verify(customerService).customersImported(List.of(first, second));
+        Mockito.verify(customerService).customersImported(List.of(third));
+    }
+
+    @Test
+    void itShouldImportNdjsonInBackground() throws Exception {
+        //Given
+        String email = FAKER.internet().safeEmailAddress();
+        String ndjson = """
+                {"name":"John","email":"%s","password":"secret","age":30,"gender":"MALE"}
+                """.formatted(email);
+
+        //When
+        CustomerImportStatus started = underTest.startImport(
+                ImportFormat.NDJSON, file -> Files.writeString(file, ndjson));
+
+        //Then
+        waitUntil(() -> underTest.getImport(started.id()).state() == ImportState.COMPLETED);
+        CustomerImportStatus actual = underTest.getImport(started.id());
+        assertThat(actual.format()).isEqualTo(ImportFormat.NDJSON);
+        assertThat(actual.inserted()).isEqualTo(1);
+        assertThat(countCustomersByEmail(jdbcTemplate, email)).isEqualTo(1);
+        assertThat(Files.list(directory)).isEmpty();
+    }
+
+    @Test
+    void itShouldKeepCommittedBatchesWhenImportFails() {
+        //Given
+        List<String> emails = new ArrayList<>();
+        StringBuilder csv = new StringBuilder("name,email,password,age,gender\n");
+        for (int i = 0; i < 10; i++) {
+            String email = FAKER.internet().safeEmailAddress();
+            emails.add(email);
+            csv.append("John,").append(email).append(",secret,30,MALE\n");
+        }
+        csv.append('"').append("x".repeat(CsvRecordReader.MAX_RECORD_LENGTH));
+
+        //When
+        CustomerImportStatus actual = importCustomers(csv.toString(), ImportFormat.CSV);
+
+        //Then
+        assertThat(actual.state()).isEqualTo(ImportState.FAILED);
+        assertThat(actual.inserted()).isEqualTo(2);
+        assertThat(countCustomersByEmail(jdbcTemplate, emails.toArray(String[]::new))).isEqualTo(2);
+        Mockito.verify(customerService).customersImported(emails.subList(0, 2));
+    }
+
+    @Test
+    void itShouldHashImportedPasswordsOutsideLoginBulkhead() {
+        //Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BoundedPasswordEncoder loginEncoder = new BoundedPasswordEncoder(passwordEncoder, 1, 1, meterRegistry);
+        underTest.shutdown();
+        underTest = new CustomerImportService(
+                jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                loginEncoder,
+                new CustomerIdAllocator(jdbcTemplate, CustomerIdAllocation.POOLED),
+                customerService,
+                new ObjectMapper(),
+                directory,
+                DataSize.ofMegabytes(1),
+                2,
+                2,
+                2,
+                10,
+                Duration.ofHours(1));
+        String email = FAKER.internet().safeEmailAddress();
+        String csv = "name,email,password,age,gender\nJohn,%s,secret,30,MALE\n".formatted(email);
+
+        //When
+        CustomerImportStatus actual = importCustomers(csv, ImportFormat.CSV);
+
+        //Then
+        assertThat(actual.state()).isEqualTo(ImportState.COMPLETED);
+        Mockito.verify(passwordEncoder).encode("secret");
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count()).isZero();
+        loginEncoder.destroy();
+    }
+
+    @Test
+    void itShouldFailImportWithoutInsertingWhenHeaderIsInvalid() {
+        //Given
+        String csv = "name,email\nJohn,john@example.com\n";
+
+        //When
+        CustomerImportStatus actual = importCustomers(csv, ImportFormat.CSV);
+
+        //Then
+        assertThat(actual.state()).isEqualTo(ImportState.FAILED);
+        assertThat(actual.failure()).contains("csv header must contain columns");
+        assertThat(countCustomersByEmail(jdbcTemplate, "john@example.com")).isZero();
+        Mockito.verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void itShouldRejectUploadLargerThanLimit() throws Exception {
+        //Given
+        byte[] body = new byte[(int) DataSize.ofMegabytes(1).toBytes() + 1];
+
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.startImport(ImportFormat.CSV, new ByteArrayInputStream(body)))
+                .isInstanceOf(PayloadTooLargeException.class)
+                .hasMessage("import exceeds 1048576B");
+        assertThat(underTest.getImports()).isEmpty();
+        assertThat(Files.list(directory)).isEmpty();
+    }
+
+    @Test
+    void itShouldThrowWhenImportNotFound() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.getImport("unknown")).
+                isInstanceOf(ResourceNotFound.class).
+                hasMessage("import with id [unknown] not found");
+    }
+
+    private CustomerImportStatus importCustomers(String content, ImportFormat format) {
+        CustomerImport customerImport = new CustomerImport("import", format, 10);
+        Path file = directory.resolve(customerImport.id());
+        try {
+            Files.writeString(file, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        underTest.run(customerImport, file);
+        return customerImport.status();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
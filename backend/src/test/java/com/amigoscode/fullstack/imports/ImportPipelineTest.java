@@ -0,0 +1,120 @@
+package com.amigoscode.fullstack.imports;
+
+import com.amigoscode.fullstack.customer.CustomerIdAllocator;
+import com.amigoscode.fullstack.customer.Gender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class ImportPipelineTest {
+
+    private ImportPipeline underTest;
+    private CustomerImport customerImport;
+    private AutoCloseable autoCloseable;
+    private final List<String> staged = new ArrayList<>();
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private CustomerIdAllocator customerIdAllocator;
+
+    @BeforeEach
+    void setUp() {
+        autoCloseable = MockitoAnnotations.openMocks(this);
+        Mockito.when(passwordEncoder.encode(anyString()))
+                .thenAnswer(invocation -> "{noop}" + invocation.getArgument(0));
+        customerImport = new CustomerImport("import", ImportFormat.CSV, 10);
+        underTest = new ImportPipeline(
+                customerImport,
+                passwordEncoder,
+                customerIdAllocator,
+                Runnable::run,
+                (rows, csv) -> staged.add(new String(csv, StandardCharsets.UTF_8)),
+                2,
+                1);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        autoCloseable.close();
+    }
+
+    @Test
+    void itShouldStageHashedRowsInChunks() {
+        //Given
+        Mockito.when(customerIdAllocator.nextIds(2)).thenReturn(List.of(7, 8));
+        Mockito.when(customerIdAllocator.nextIds(1)).thenReturn(List.of(9));
+
+        //When
+        underTest.row(row(1, "a@example.com", "Doe, \"John\""));
+        underTest.row(row(2, "b@example.com", "Jane"));
+        underTest.row(row(3, "c@example.com", "Jim"));
+        underTest.finish();
+
+        //Then
+        assertThat(staged).containsExactly(
+                "7,1,\"Doe, \"\"John\"\"\",\"a@example.com\",\"{noop}secret\",30,MALE\n"
+                        + "8,2,\"Jane\",\"b@example.com\",\"{noop}secret\",30,MALE\n",
+                "9,3,\"Jim\",\"c@example.com\",\"{noop}secret\",30,MALE\n");
+        CustomerImportStatus status = customerImport.status();
+        assertThat(status.rowsRead()).isEqualTo(3);
+        assertThat(status.rowsHashed()).isEqualTo(3);
+        assertThat(status.rowsStaged()).isEqualTo(3);
+    }
+
+    @Test
+    void itShouldLeaveIdEmptyWhenSequenceAssignsIt() {
+        //Given
+        Mockito.when(customerIdAllocator.nextIds(1)).thenReturn(Collections.nCopies(1, null));
+
+        //When
+        underTest.row(row(1, "a@example.com", "John"));
+        underTest.finish();
+
+        //Then
+        assertThat(staged).containsExactly(",1,\"John\",\"a@example.com\",\"{noop}secret\",30,MALE\n");
+    }
+
+    @Test
+    void itShouldSkipDuplicateEmailsInFile() {
+        //Given
+        Mockito.when(customerIdAllocator.nextIds(anyInt()))
+                .thenAnswer(invocation -> Arrays.asList(new Integer[invocation.<Integer>getArgument(0)]));
+
+        //When
+        underTest.row(row(1, "a@example.com", "John"));
+        underTest.row(row(2, "a@example.com", "Jane"));
+        underTest.invalid(new ImportError(3, null, "email is required"));
+        underTest.finish();
+
+        //Then
+        assertThat(underTest.emails()).containsExactly("a@example.com");
+        CustomerImportStatus status = customerImport.status();
+        assertThat(status.rowsRead()).isEqualTo(3);
+        assertThat(status.rowsStaged()).isEqualTo(1);
+        assertThat(status.duplicatesInFile()).isEqualTo(1);
+        assertThat(status.invalid()).isEqualTo(1);
+        assertThat(status.errors()).containsExactly(
+                new ImportError(2, "a@example.com", "duplicate email in file"),
+                new ImportError(3, null, "email is required"));
+    }
+
+    private static ImportRow row(long line, String email, String name) {
+        return new ImportRow(line, name, email, "secret", 30, Gender.MALE);
+    }
+}
@@ -0,0 +1,32 @@
+package com.amigoscode.fullstack.journey;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+public class ActuatorTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void itShouldExposeOnlyHealthAnonymously() {
+        webTestClient.get()
+                .uri("/actuator/health")
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        for (String endpoint : new String[]{"/actuator/metrics", "/actuator/prometheus", "/actuator/caches"}) {
+            webTestClient.get()
+                    .uri(endpoint)
+                    .exchange()
+                    .expectStatus()
+                    .isUnauthorized();
+        }
+    }
+}
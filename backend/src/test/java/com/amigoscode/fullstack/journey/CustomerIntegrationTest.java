@@ -7,11 +7,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -51,17 +55,7 @@ public class CustomerIntegrationTest {
                 .get(0);
 
         //get all customers
-        List<CustomerDTO> allCustomers = webTestClient.get()
-                .uri("/api/customers")
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {
-                })
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
 
 
@@ -137,16 +131,7 @@ public class CustomerIntegrationTest {
                 .get(0);
 
         //get all customers
-        List<CustomerDTO> allCustomers = webTestClient.get()
-                .uri("/api/customers")
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
         //delete customer 1 by id
         int id = allCustomers.stream()
@@ -198,16 +183,7 @@ public class CustomerIntegrationTest {
                 .get(0);
 
         //get all customers
-        List<CustomerDTO> allCustomers = webTestClient.get()
-                .uri("/api/customers")
-                .accept(MediaType.APPLICATION_JSON)
-                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
-                .exchange()
-                .expectStatus()
-                .isOk()
-                .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
-                .returnResult()
-                .getResponseBody();
+        List<CustomerDTO> allCustomers = getAllCustomers(jwtToken);
 
         int id = allCustomers.stream()
                 .filter(customer -> customer.email().equals(email))
@@ -246,4 +222,99 @@ public class CustomerIntegrationTest {
 
         assertThat(updatedCustomer).isEqualTo(expectedCustomer);
     }
+
+    @Test
+    void itShouldRevalidateCustomerWithETag() {
+        Faker faker = new Faker();
+        String email = faker.internet().safeEmailAddress();
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest(
+                faker.name().fullName(), email, "foobar", 30, Gender.MALE);
+
+        EntityExchangeResult<CustomerRegistrationResponse> registration = webTestClient.post()
+                .uri("/api/customers")
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(request), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody(CustomerRegistrationResponse.class)
+                .returnResult();
+        String jwtToken = registration.getResponseHeaders().get(HttpHeaders.AUTHORIZATION).get(0);
+        Integer id = registration.getResponseBody().id();
+
+        //first read returns the ETag
+        String eTag = webTestClient.get()
+                .uri("/api/customers" + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .returnResult(CustomerDTO.class)
+                .getResponseHeaders()
+                .getETag();
+        assertThat(eTag).isNotNull();
+
+        //unchanged customer is not sent again
+        webTestClient.get()
+                .uri("/api/customers" + "/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus()
+                .isNotModified()
+                .expectBody()
+                .isEmpty();
+
+        //update guarded by the ETag succeeds once
+        CustomerUpdateRequest customerUpdateRequest = new CustomerUpdateRequest("New Name", null, null);
+        webTestClient.put()
+                .uri("/api/customers" + "/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(customerUpdateRequest), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .exists(HttpHeaders.ETAG);
+
+        //a second update with the stale ETag is rejected
+        webTestClient.put()
+                .uri("/api/customers" + "/{id}", id)
+                .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(customerUpdateRequest), CustomerUpdateRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    private List<CustomerDTO> getAllCustomers(String jwtToken) {
+        List<CustomerDTO> allCustomers = new ArrayList<>();
+        String cursor = null;
+        do {
+            String after = cursor;
+            EntityExchangeResult<List<CustomerDTO>> page = webTestClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/api/customers")
+                            .queryParam("limit", 500)
+                            .queryParamIfPresent("after", Optional.ofNullable(after))
+                            .build())
+                    .accept(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.AUTHORIZATION, String.format("Bearer %s", jwtToken))
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBodyList(new ParameterizedTypeReference<CustomerDTO>() {})
+                    .returnResult();
+            allCustomers.addAll(page.getResponseBody());
+            cursor = page.getResponseHeaders().getFirst(CustomerController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return allCustomers;
+    }
 }
@@ -0,0 +1,71 @@
+package com.amigoscode.fullstack.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTUtilTest {
+
+    private JWTUtil underTest;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new JWTUtil(100, meterRegistry);
+    }
+
+    @Test
+    void itShouldParseIssuedToken() {
+        //Given
+        String token = underTest.issueToken("test@amigoscode.com", List.of("ROLE_USER"));
+        //When
+        Claims claims = underTest.parseToken(token);
+        //Then
+        assertThat(claims.getSubject()).isEqualTo("test@amigoscode.com");
+        assertThat(claims.get("scopes", List.class)).containsExactly("ROLE_USER");
+        assertThat(underTest.isTokenValid(token, "test@amigoscode.com")).isTrue();
+        assertThat(underTest.isTokenValid(token, "other@amigoscode.com")).isFalse();
+    }
+
+    @Test
+    void itShouldIssueTokenWithCustomerClaims() {
+        //Given
+        String token = underTest.issueToken("test@amigoscode.com", 7, List.of("ROLE_USER"), 2);
+        //When
+        Claims claims = underTest.parseToken(token);
+        //Then
+        assertThat(claims.get(JWTUtil.CUSTOMER_ID_CLAIM, Integer.class)).isEqualTo(7);
+        assertThat(claims.get(JWTUtil.TOKEN_VERSION_CLAIM, Integer.class)).isEqualTo(2);
+    }
+
+    @Test
+    void itShouldServeRepeatedTokensFromCache() {
+        //Given
+        String token = underTest.issueToken("test@amigoscode.com");
+        //When
+        Claims first = underTest.parseToken(token);
+        Claims second = underTest.parseToken(token);
+        //Then
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldRejectTamperedToken() {
+        //Given
+        String token = underTest.issueToken("test@amigoscode.com");
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.parseToken(tampered)).isInstanceOf(JwtException.class);
+    }
+}
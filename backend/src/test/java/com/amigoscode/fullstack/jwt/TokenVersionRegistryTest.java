@@ -0,0 +1,127 @@
+package com.amigoscode.fullstack.jwt;
+
+import com.amigoscode.fullstack.AbstractTestcontainersUnitTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenVersionRegistryTest extends AbstractTestcontainersUnitTest {
+
+    private TokenVersionRegistry underTest;
+    private final Random random = new Random();
+
+    @BeforeEach
+    void setUp() {
+        underTest = new TokenVersionRegistry(getJdbcTemplate());
+    }
+
+    @Test
+    void itShouldTreatUnknownCustomerAsVersionZero() {
+        //Given
+        int customerId = random.nextInt(1, Integer.MAX_VALUE);
+        //When
+        int actual = underTest.currentVersion(customerId);
+        //Then
+        assertThat(actual).isZero();
+        assertThat(underTest.isCurrent(customerId, 0)).isTrue();
+    }
+
+    @Test
+    void itShouldInvalidateOlderTokensOnRevoke() {
+        //Given
+        int customerId = random.nextInt(1, Integer.MAX_VALUE);
+        //When
+        underTest.revoke(customerId);
+        //Then
+        assertThat(underTest.isCurrent(customerId, 0)).isFalse();
+        assertThat(underTest.isCurrent(customerId, 1)).isTrue();
+    }
+
+    @Test
+    void itShouldLoadRevocationsFromOtherInstancesOnRefresh() {
+        //Given
+        int customerId = random.nextInt(1, Integer.MAX_VALUE);
+        new TokenVersionRegistry(getJdbcTemplate()).revoke(customerId);
+        //When
+        underTest.refresh();
+        //Then
+        assertThat(underTest.currentVersion(customerId)).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldIssueVersionRevokedOnAnotherInstanceBeforeRefresh() {
+        //Given
+        int customerId = random.nextInt(1, Integer.MAX_VALUE);
+        new TokenVersionRegistry(getJdbcTemplate()).revoke(customerId);
+        //When
+        int actual = underTest.issueVersion(customerId);
+        //Then
+        assertThat(actual).isEqualTo(1);
+        assertThat(underTest.isCurrent(customerId, 0)).isFalse();
+    }
+
+    @Test
+    void itShouldKeepNewerLocalRevocationWhenRefreshReadsOlderVersion() {
+        //Given
+        int customerId = random.nextInt(1, Integer.MAX_VALUE);
+        underTest.revoke(customerId);
+        underTest.revoke(customerId);
+        getJdbcTemplate().update(
+                "UPDATE customer_token_versions SET token_version = 1 WHERE customer_id = ?", customerId);
+        //When
+        underTest.refresh();
+        //Then
+        assertThat(underTest.currentVersion(customerId)).isEqualTo(2);
+    }
+
+    @Test
+    void itShouldOnlyReadRecentRevocationsAfterFirstRefresh() {
+        //Given
+        int recent = random.nextInt(1, Integer.MAX_VALUE);
+        int stale = random.nextInt(1, Integer.MAX_VALUE);
+        TokenVersionRegistry other = new TokenVersionRegistry(getJdbcTemplate());
+        other.revoke(stale);
+        underTest.refresh();
+        other.revoke(recent);
+        getJdbcTemplate().update("""
+                UPDATE customer_token_versions SET token_version = 5, revoked_at = now() - interval '1 day'
+                WHERE customer_id = ?
+                """, stale);
+        //When
+        underTest.refresh();
+        //Then
+        assertThat(underTest.currentVersion(recent)).isEqualTo(1);
+        assertThat(underTest.currentVersion(stale)).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldPruneExpiredRevocationsOfDeletedCustomers() {
+        //Given
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        int deleted = random.nextInt(1, Integer.MAX_VALUE);
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT id FROM customers WHERE customer_email = ?", Integer.class, insertCustomer(jdbcTemplate));
+        underTest.revoke(deleted);
+        underTest.revoke(existing);
+        jdbcTemplate.update("""
+                UPDATE customer_token_versions SET revoked_at = ?
+                WHERE customer_id IN (?, ?)
+                """, Timestamp.from(Instant.now().minus(JWTUtil.TOKEN_LIFETIME).minus(Duration.ofDays(1))),
+                deleted, existing);
+        //When
+        underTest.prune();
+        //Then
+        assertThat(underTest.currentVersion(deleted)).isZero();
+        assertThat(underTest.currentVersion(existing)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer_token_versions WHERE customer_id IN (?, ?)",
+                Integer.class, deleted, existing)).isEqualTo(1);
+    }
+}
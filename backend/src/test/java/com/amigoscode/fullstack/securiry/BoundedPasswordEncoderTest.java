@@ -0,0 +1,90 @@
+package com.amigoscode.fullstack.securiry;
+
+import com.amigoscode.fullstack.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void itShouldDelegateHashingToExecutor() {
+        //Given
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode("foobar")).thenReturn("hash");
+        when(delegate.matches("foobar", "hash")).thenReturn(true);
+        underTest = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+        //When
+        String encoded = underTest.encode("foobar");
+        boolean matches = underTest.matches("foobar", "hash");
+        //Then
+        assertThat(encoded).isEqualTo("hash");
+        assertThat(matches).isTrue();
+        assertThat(meterRegistry.get("password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void itShouldFailFastWhenQueueIsFull() throws Exception {
+        //Given
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode("foobar")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        underTest = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> underTest.encode("foobar"));
+        waitUntil(() -> meterRegistry.get("executor.active").gauge().value() == 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> underTest.encode("foobar"));
+        waitUntil(() -> meterRegistry.get("executor.queued").gauge().value() == 1);
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.encode("foobar")).isInstanceOf(ServiceOverloadedException.class);
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+
+    @Test
+    void itShouldKeepBatchHashingWithinPoolSize() {
+        //Given
+        PasswordEncoder delegate = mock(PasswordEncoder.class);
+        when(delegate.encode(anyString())).thenAnswer(invocation -> "hash-" + invocation.getArgument(0));
+        underTest = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+        //When
+        List<CompletableFuture<String>> actual = underTest.encodeAll(List.of("a", "b", "c", "d"));
+        //Then
+        assertThat(actual).extracting(CompletableFuture::join).containsExactly("hash-a", "hash-b", "hash-c", "hash-d");
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isZero();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
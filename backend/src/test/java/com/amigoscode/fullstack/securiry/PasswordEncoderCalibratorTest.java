@@ -0,0 +1,62 @@
+package com.amigoscode.fullstack.securiry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordEncoderCalibratorTest {
+
+    private final PasswordEncoderCalibrator underTest =
+            new PasswordEncoderCalibrator(Duration.ofMillis(1), 1024);
+
+    @Test
+    void itShouldNeverCalibrateBelowMinimumCost() {
+        //When
+        int strength = underTest.calibrateBCryptStrength();
+        int iterations = underTest.calibrateArgon2Iterations();
+        //Then
+        assertThat(strength).isEqualTo(PasswordEncoderCalibrator.MIN_BCRYPT_STRENGTH);
+        assertThat(iterations).isEqualTo(PasswordEncoderCalibrator.MIN_ARGON2_ITERATIONS);
+    }
+
+    @Test
+    void itShouldMatchAndUpgradeLegacyBCryptHashes() {
+        //Given
+        PasswordEncoder passwordEncoder = underTest.delegatingPasswordEncoder("bcrypt");
+        String legacyHash = new BCryptPasswordEncoder(4).encode("foobar");
+        //When
+        boolean matches = passwordEncoder.matches("foobar", legacyHash);
+        //Then
+        assertThat(matches).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(legacyHash)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(passwordEncoder.encode("foobar"))).isFalse();
+    }
+
+    @Test
+    void itShouldUpgradeBCryptHashesWhenArgon2IsSelected() {
+        //Given
+        PasswordEncoder bcrypt = underTest.delegatingPasswordEncoder("bcrypt");
+        PasswordEncoder argon2 = underTest.delegatingPasswordEncoder("argon2");
+        String bcryptHash = bcrypt.encode("foobar");
+        //When
+        String argon2Hash = argon2.encode("foobar");
+        //Then
+        assertThat(argon2Hash).startsWith("{argon2}");
+        assertThat(argon2.matches("foobar", bcryptHash)).isTrue();
+        assertThat(argon2.upgradeEncoding(bcryptHash)).isTrue();
+        assertThat(argon2.upgradeEncoding(argon2Hash)).isFalse();
+    }
+
+    @Test
+    void itShouldRejectUnknownAlgorithm() {
+        //When
+        //Then
+        assertThatThrownBy(() -> underTest.delegatingPasswordEncoder("md5"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
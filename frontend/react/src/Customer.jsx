@@ -14,8 +14,8 @@ const Customer = () => {
 
     const fetchCustomers = ()=>{
         setLoading(true);
-        getCustomers().then(res => {
-            setCustomers(res.data)
+        getCustomers().then(customers => {
+            setCustomers(customers)
         }).catch(err => {
             errorNotification(
                 err.code,
@@ -8,9 +8,16 @@ const getAuthConfig = ()=>({
 
 export const getCustomers = async ()=>{
     try {
-        return await axios.get(
-            `${import.meta.env.VITE_API_BASE_URL}/api/customers`,
-            getAuthConfig())
+        const customers = [];
+        let after;
+        do {
+            const res = await axios.get(
+                `${import.meta.env.VITE_API_BASE_URL}/api/customers`,
+                {...getAuthConfig(), params: {limit: 500, after}})
+            customers.push(...res.data);
+            after = res.headers["x-next-cursor"];
+        } while (after)
+        return customers;
     } catch (e){
         throw e;
     }